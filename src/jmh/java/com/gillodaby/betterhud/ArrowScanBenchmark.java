@@ -0,0 +1,58 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrow counting: a full rescan (join and consistency check) against the incremental
+ * single-container rescan that a backpack change event triggers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrowScanBenchmark {
+
+    @Param({"9", "36", "108", "324"})
+    public int storageSlots;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double fillRatio;
+
+    private ArrowTally tally;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Player player = BenchFixtures.player(storageSlots, fillRatio, 7L);
+        tally = HudSectionBenchmark.tallyFor(player);
+        tally.rescanAll();
+    }
+
+    @Benchmark
+    public int countArrowsFull() {
+        tally.rescanAll();
+        return tally.total();
+    }
+
+    @Benchmark
+    public int countArrowsBackpackChanged() {
+        // Index 2 is the backpack in the tally's container order
+        tally.rescan(2);
+        return tally.total();
+    }
+}
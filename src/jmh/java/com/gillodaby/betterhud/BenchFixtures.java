@@ -0,0 +1,72 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Builds stand-in players with deterministic inventories for the benchmarks.
+ */
+final class BenchFixtures {
+
+    static final Item SWORD = new Item(false, true);
+    static final Item PICKAXE = new Item(true, false);
+    static final Item PLAIN = new Item(false, false);
+
+    private static final String[] ARMOR_IDS = {
+        "Armor_Iron_Head", "Armor_Iron_Chest", "Armor_Iron_Legs", "Armor_Iron_Feet"
+    };
+    private static final String[] FILLER_IDS = {
+        "Soil_Dirt", "Rock_Stone", "Wood_Oak_Trunk", "Plant_Fruit_Apple", "Ingredient_Bar_Iron"
+    };
+
+    private BenchFixtures() {
+    }
+
+    /**
+     * @param storageSlots size of the storage and backpack containers
+     * @param fillRatio    fraction of hotbar/storage/backpack slots holding a stack
+     * @param seed         makes the layout reproducible across runs and builds
+     */
+    static Player player(int storageSlots, double fillRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ItemContainer armor = new ItemContainer(4);
+        for (short i = 0; i < 4; i++) {
+            armor.setItemStack(i, new ItemStack(ARMOR_IDS[i], 1, 50 + i * 10, 100, PLAIN));
+        }
+        ItemContainer hotbar = filled(9, fillRatio, random);
+        hotbar.setItemStack((short) 0, new ItemStack("Weapon_Sword_Iron", 1, 73, 120, SWORD));
+        ItemContainer storage = filled(storageSlots, fillRatio, random);
+        ItemContainer backpack = filled(storageSlots, fillRatio, random);
+        ItemContainer utility = new ItemContainer(4);
+        ItemContainer tools = new ItemContainer(4);
+        tools.setItemStack((short) 0, new ItemStack("Tool_Pickaxe_Iron", 1, 200, 250, PICKAXE));
+
+        Inventory inventory = new Inventory(armor, hotbar, storage, backpack, utility, tools);
+        UUID id = new UUID(seed, storageSlots);
+        return new Player(new PlayerRef(id, "bench-" + seed), inventory);
+    }
+
+    private static ItemContainer filled(int capacity, double fillRatio, SplittableRandom random) {
+        ItemContainer container = new ItemContainer(capacity);
+        for (short slot = 0; slot < capacity; slot++) {
+            if (random.nextDouble() >= fillRatio) {
+                continue;
+            }
+            // Roughly one stack in eight is ammo so the tally has real work to do
+            if (random.nextInt(8) == 0) {
+                container.setItemStack(slot, new ItemStack("Weapon_Arrow_Crude", 1 + random.nextInt(64), 0, 0, PLAIN));
+            } else {
+                String id = FILLER_IDS[random.nextInt(FILLER_IDS.length)];
+                container.setItemStack(slot, new ItemStack(id, 1 + random.nextInt(64), 0, 0, PLAIN));
+            }
+        }
+        return container;
+    }
+}
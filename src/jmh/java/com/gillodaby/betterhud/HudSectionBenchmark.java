@@ -0,0 +1,88 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of capturing and writing each HUD section, either as a full rebuild or as a diff against
+ * an up-to-date shadow (the steady state where nothing changed).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HudSectionBenchmark {
+
+    @Param({"true", "false"})
+    public boolean full;
+
+    @Param({"9", "36", "108"})
+    public int storageSlots;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double fillRatio;
+
+    private Player player;
+    private ItemContainer[] containers;
+    private Object[] states;
+    private HudSnapshot current;
+    private final Map<String, Object> sent = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        player = BenchFixtures.player(storageSlots, fillRatio, 42L);
+        containers = HudContainer.resolve(player);
+        states = HudSections.newStates(containers);
+        // Prime the shadow so the diff runs measure the nothing-changed path
+        HudPatch prime = new HudPatch(new UICommandBuilder(), sent, true);
+        current = HudSnapshot.EMPTY.capture(player, containers, states, HudSections.mask(), HudContainer.ALL);
+        current.write(prime, HudSections.mask());
+    }
+
+    @Benchmark
+    public HudPatch writeArmorSection() {
+        return write(HudSections.ARMOR);
+    }
+
+    @Benchmark
+    public HudPatch writeArrowsSection() {
+        // No container changed, so the tally is reused as a change-free flush would
+        return write(HudSections.ARROWS);
+    }
+
+    @Benchmark
+    public HudPatch writeMainHandSection() {
+        return write(HudSections.MAIN_HAND);
+    }
+
+    private HudPatch write(HudSection<?, ?> section) {
+        HudPatch patch = new HudPatch(new UICommandBuilder(), sent, full);
+        current.capture(player, containers, states, section.bit(), 0).write(patch, section.bit());
+        return patch;
+    }
+
+    static ArrowTally tallyFor(Player player) {
+        var inventory = player.getInventory();
+        return new ArrowTally(inventory.getHotbar(), inventory.getStorage(), inventory.getBackpack(),
+            inventory.getUtility(), inventory.getTools());
+    }
+}
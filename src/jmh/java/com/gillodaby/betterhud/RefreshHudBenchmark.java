@@ -0,0 +1,55 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end refresh of one tracked player through BetterHudService, as the sweeps run it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshHudBenchmark {
+
+    @Param({"9", "36", "108"})
+    public int storageSlots;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double fillRatio;
+
+    private BetterHudService service;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new BetterHudService();
+        player = BenchFixtures.player(storageSlots, fillRatio, 11L);
+        service.openNow(player);
+    }
+
+    @Benchmark
+    public void refreshHudAll() {
+        service.refreshNow(player, HudSections.mask());
+    }
+
+    @Benchmark
+    public void refreshHudMainHand() {
+        service.refreshNow(player, HudSections.MAIN_HAND.bit());
+    }
+}
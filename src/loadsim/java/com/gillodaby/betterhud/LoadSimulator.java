@@ -0,0 +1,396 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
+import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
+import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load harness: drives BetterHudService with fake players on the server API
+ * stand-ins and writes a JSON report that can be diffed between builds.
+ *
+ * <pre>
+ * ./gradlew loadSim -Pargs="--players=2000 --duration=60"
+ * </pre>
+ */
+public final class LoadSimulator {
+
+    private static final Item PLAIN = new Item(false, false);
+    private static final Item SWORD = new Item(false, true);
+    private static final String[] FILLER_IDS = {"Soil_Dirt", "Rock_Stone", "Wood_Oak_Trunk", "Plant_Fruit_Apple"};
+
+    private final Options options;
+    private final BetterHudService service = new BetterHudService();
+    private final Map<UUID, SimPlayer> players = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder commandBytes = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder listenerNanos = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    private final LongAdder disconnects = new LongAdder();
+    private final LagRecorder lag = new LagRecorder();
+
+    private LoadSimulator(Options options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        new LoadSimulator(options).run();
+    }
+
+    private void run() throws Exception {
+        CustomUIHud.sink = this::onUpdate;
+        service.start();
+
+        long startNanos = System.nanoTime();
+        Map<Long, Long> cpuBefore = refresherCpuTimes();
+        for (int i = 0; i < options.players; i++) {
+            join(new UUID(0xB377E4L, i), i);
+            // Spread joins across the ramp like a real reconnect wave
+            if (options.joinRampSeconds > 0) {
+                sleepNanos(TimeUnit.SECONDS.toNanos(options.joinRampSeconds) / Math.max(1, options.players));
+            }
+        }
+
+        CountDownLatch done = new CountDownLatch(options.tickThreads);
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+        for (int t = 0; t < options.tickThreads; t++) {
+            int threadIndex = t;
+            Thread tick = new Thread(() -> {
+                try {
+                    tickLoop(threadIndex, endNanos);
+                } finally {
+                    done.countDown();
+                }
+            }, "LoadSim-Tick-" + t);
+            tick.setDaemon(true);
+            tick.start();
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Map<Long, Long> cpuAfter = refresherCpuTimes();
+
+        writeReport(elapsedNanos, cpuBefore, cpuAfter);
+    }
+
+    /**
+     * One simulated world thread: owns every player whose index maps to it and mutates
+     * their inventories at the configured rate, 20 ticks per second.
+     */
+    private void tickLoop(int threadIndex, long endNanos) {
+        SplittableRandom random = new SplittableRandom(options.seed + threadIndex);
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        double eventChance = options.eventsPerPlayerPerSecond / 20.0;
+        double churnChance = options.churnPerPlayerPerSecond / 20.0;
+        long next = System.nanoTime();
+        while (System.nanoTime() < endNanos) {
+            for (SimPlayer sim : players.values()) {
+                if (sim.index % options.tickThreads != threadIndex) {
+                    continue;
+                }
+                if (random.nextDouble() < churnChance) {
+                    rejoin(sim);
+                    continue;
+                }
+                if (random.nextDouble() < eventChance) {
+                    mutate(sim, random);
+                }
+                if (random.nextDouble() < options.durabilityTickChance) {
+                    // Durability loss on the held item raises no container event
+                    sim.wearMainHand();
+                }
+            }
+            next += tickNanos;
+            sleepNanos(next - System.nanoTime());
+        }
+    }
+
+    private void mutate(SimPlayer sim, SplittableRandom random) {
+        // Shift-clicks and loot pickups touch several containers in a row
+        int burst = random.nextInt(10) == 0 ? 2 + random.nextInt(4) : 1;
+        for (int i = 0; i < burst; i++) {
+            int index = 1 + random.nextInt(sim.containers.length - 1);
+            ItemContainer container = sim.containers[index];
+            short slot = (short) random.nextInt(container.getCapacity());
+            ItemStack previous = container.getItemStack(slot);
+            ItemStack next = randomStack(random);
+            container.setItemStack(slot, next);
+            // Lag is only measured for changes the HUD must show; others legitimately send nothing
+            if (isAmmo(previous) || isAmmo(next) || (index == 1 && slot == 0)) {
+                sim.markPending();
+            }
+            long before = System.nanoTime();
+            container.fireChange();
+            listenerNanos.add(System.nanoTime() - before);
+            events.increment();
+        }
+    }
+
+    private void join(UUID id, int index) {
+        SimPlayer sim = new SimPlayer(id, index, options);
+        players.put(id, sim);
+        if (options.teamSize > 1) {
+            HudTeams.join(id, "team-" + index / options.teamSize);
+        }
+        service.handlePlayerReady(new PlayerReadyEvent(sim.player));
+        joins.increment();
+    }
+
+    private void rejoin(SimPlayer sim) {
+        sim.player.remove();
+        service.handlePlayerDisconnect(new PlayerDisconnectEvent(sim.player.getPlayerRef()));
+        disconnects.increment();
+        join(sim.id, sim.index);
+    }
+
+    private void onUpdate(CustomUIHud hud, UICommandBuilder builder) {
+        updates.increment();
+        commandBytes.add(builder.byteSize());
+        SimPlayer sim = players.get(hud.getPlayerRef().getUuid());
+        if (sim == null) {
+            return;
+        }
+        sim.opened = true;
+        long since = sim.pendingSince;
+        if (since != 0L) {
+            sim.pendingSince = 0L;
+            lag.record(System.nanoTime() - since);
+        }
+    }
+
+    private static boolean isAmmo(ItemStack stack) {
+        return stack != null && !stack.isEmpty() && stack.getItemId().startsWith("Weapon_Arrow");
+    }
+
+    private static ItemStack randomStack(SplittableRandom random) {
+        if (random.nextInt(6) == 0) {
+            return new ItemStack("Weapon_Arrow_Crude", 1 + random.nextInt(64), 0, 0, PLAIN);
+        }
+        if (random.nextInt(4) == 0) {
+            return null;
+        }
+        return new ItemStack(FILLER_IDS[random.nextInt(FILLER_IDS.length)], 1 + random.nextInt(64), 0, 0, PLAIN);
+    }
+
+    private static Map<Long, Long> refresherCpuTimes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Map<Long, Long> times = new HashMap<>();
+        for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (info != null && info.getThreadName().startsWith("BetterHUD-Refresher")) {
+                times.put(info.getThreadId(), Math.max(0L, threads.getThreadCpuTime(info.getThreadId())));
+            }
+        }
+        return times;
+    }
+
+    private void writeReport(long elapsedNanos, Map<Long, Long> cpuBefore, Map<Long, Long> cpuAfter) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        long refresherCpu = 0L;
+        for (Map.Entry<Long, Long> entry : cpuAfter.entrySet()) {
+            refresherCpu += entry.getValue() - cpuBefore.getOrDefault(entry.getKey(), 0L);
+        }
+        int refresherThreads = Math.max(1, cpuAfter.size());
+        long eventCount = events.sum();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("players", options.players);
+        report.put("durationSeconds", round(seconds));
+        report.put("eventsPerPlayerPerSecond", options.eventsPerPlayerPerSecond);
+        report.put("refresherThreads", refresherThreads);
+        report.put("joins", joins.sum());
+        report.put("disconnects", disconnects.sum());
+        report.put("containerEvents", eventCount);
+        report.put("updates", updates.sum());
+        report.put("updatesPerSecond", round(updates.sum() / seconds));
+        report.put("teamSize", options.teamSize);
+        report.put("teamSummaries", HudTeams.SUMMARIES.sum());
+        report.put("teamNotifications", HudTeams.FANOUT.sum());
+        report.put("updatesSuppressed", HudMetrics.UPDATES_SUPPRESSED.sum());
+        report.put("updatesDeferred", HudMetrics.UPDATES_DEFERRED.sum());
+        report.put("hudsOpened", HudMetrics.TIME_TO_HUD_NANOS.count());
+        report.put("timeToHudP50UpperMillis", HudMetrics.TIME_TO_HUD_NANOS.quantileUpperBound(0.50) / 1_000_000L);
+        report.put("timeToHudP99UpperMillis", HudMetrics.TIME_TO_HUD_NANOS.quantileUpperBound(0.99) / 1_000_000L);
+        report.put("uiCommandBytes", commandBytes.sum());
+        report.put("uiCommandBytesPerSecond", round(commandBytes.sum() / seconds));
+        report.put("refresherCpuSeconds", round(refresherCpu / 1e9));
+        report.put("refresherUtilization", round(refresherCpu / 1e9 / seconds / refresherThreads));
+        report.put("listenerNanosPerEvent", eventCount == 0 ? 0 : round((double) listenerNanos.sum() / eventCount));
+        report.put("refreshLagSamples", lag.count());
+        report.put("refreshLagP50Millis", round(lag.percentile(0.50) / 1e6));
+        report.put("refreshLagP99Millis", round(lag.percentile(0.99) / 1e6));
+        report.put("refreshLagMaxMillis", round(lag.percentile(1.0) / 1e6));
+
+        String json = toJson(report);
+        Path out = Path.of(options.out);
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.writeString(out, json, StandardCharsets.UTF_8);
+        System.out.println(json);
+        System.out.println("[BetterHUD] Load report written to " + out.toAbsolutePath());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static String toJson(Map<String, Object> values) {
+        StringBuilder json = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            json.append("  \"").append(entry.getKey()).append("\": ").append(entry.getValue());
+            json.append(++i < values.size() ? ",\n" : "\n");
+        }
+        return json.append("}\n").toString();
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SimPlayer {
+        final UUID id;
+        final int index;
+        final Player player;
+        final ItemContainer[] containers;
+        // First container event not yet reflected in an update, 0 when caught up
+        volatile long pendingSince;
+        // Events before the HUD opens would measure the join delay, not refresh lag
+        volatile boolean opened;
+        private double mainDurability = 200;
+
+        SimPlayer(UUID id, int index, Options options) {
+            this.id = id;
+            this.index = index;
+            ItemContainer armor = new ItemContainer(4);
+            for (short i = 0; i < 4; i++) {
+                armor.setItemStack(i, new ItemStack("Armor_Iron_" + i, 1, 80, 100, PLAIN));
+            }
+            ItemContainer hotbar = new ItemContainer(9);
+            hotbar.setItemStack((short) 0, new ItemStack("Weapon_Sword_Iron", 1, mainDurability, 200, SWORD));
+            this.containers = new ItemContainer[] {
+                armor,
+                hotbar,
+                new ItemContainer(options.storageSlots),
+                new ItemContainer(options.storageSlots),
+                new ItemContainer(4),
+                new ItemContainer(4)
+            };
+            Inventory inventory = new Inventory(containers[0], containers[1], containers[2], containers[3], containers[4], containers[5]);
+            this.player = new Player(new PlayerRef(id, "sim-" + index), inventory);
+        }
+
+        void markPending() {
+            if (opened && pendingSince == 0L) {
+                pendingSince = System.nanoTime();
+            }
+        }
+
+        void wearMainHand() {
+            mainDurability = mainDurability <= 1 ? 200 : mainDurability - 1;
+            containers[1].setItemStack((short) 0, new ItemStack("Weapon_Sword_Iron", 1, mainDurability, 200, SWORD));
+        }
+    }
+
+    /**
+     * Keeps every lag sample; a run produces at most a few million, which sort quickly.
+     */
+    private static final class LagRecorder {
+        private long[] samples = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+        }
+
+        synchronized int count() {
+            return size;
+        }
+
+        synchronized double percentile(double p) {
+            if (size == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(p * size) - 1));
+            return sorted[index];
+        }
+    }
+
+    private static final class Options {
+        int players = 500;
+        int durationSeconds = 60;
+        int joinRampSeconds = 10;
+        int storageSlots = 36;
+        int tickThreads = 4;
+        double eventsPerPlayerPerSecond = 0.5;
+        double churnPerPlayerPerSecond = 0.001;
+        double durabilityTickChance = 0.01;
+        int teamSize = 0;
+        long seed = 1L;
+        String out = "build/reports/loadsim/report.json";
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value but got " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name.toLowerCase(Locale.ROOT)) {
+                    case "players" -> options.players = Integer.parseInt(value);
+                    case "duration" -> options.durationSeconds = Integer.parseInt(value);
+                    case "join-ramp" -> options.joinRampSeconds = Integer.parseInt(value);
+                    case "storage-slots" -> options.storageSlots = Integer.parseInt(value);
+                    case "tick-threads" -> options.tickThreads = Math.max(1, Integer.parseInt(value));
+                    case "events-per-player" -> options.eventsPerPlayerPerSecond = Double.parseDouble(value);
+                    case "churn-per-player" -> options.churnPerPlayerPerSecond = Double.parseDouble(value);
+                    case "durability-tick" -> options.durabilityTickChance = Double.parseDouble(value);
+                    case "team-size" -> options.teamSize = Integer.parseInt(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "out" -> options.out = value;
+                    default -> throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            return options;
+        }
+    }
+}
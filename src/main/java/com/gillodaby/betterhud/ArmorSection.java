@@ -0,0 +1,91 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+import java.util.Objects;
+
+/**
+ * Icon and durability of each armor piece. Wear does not raise a container event, so the armor
+ * is also fingerprinted by the idle probe.
+ */
+final class ArmorSection extends HudSection<Void, ArmorSection.Pieces> {
+
+    private static final Pieces BLANK = new Pieces(new String[] {"", "", "", ""}, new String[HudText.SLOT_IDS.length]);
+
+    ArmorSection() {
+        super("armor", CadenceController.ARMOR, HudContainer.ARMOR);
+    }
+
+    @Override
+    Pieces blank() {
+        return BLANK;
+    }
+
+    @Override
+    Pieces capture(Player player, ItemContainer[] containers, Void state, int changed, Pieces previous) {
+        ItemContainer armor = containers[HudContainer.ARMOR.ordinal()];
+        if (armor == null || player == null) {
+            return BLANK;
+        }
+        // Copied on the first piece that differs; until then previous is still accurate
+        String[] values = null;
+        String[] icons = null;
+        int capacity = Math.min(armor.getCapacity(), HudText.SLOT_IDS.length);
+        for (int i = 0; i < HudText.SLOT_IDS.length; i++) {
+            ItemStack stack = i < capacity ? armor.getItemStack((short) i) : null;
+            boolean empty = stack == null || stack.isEmpty();
+            String value = empty ? "" : HudText.durability(stack.getDurability(), stack.getMaxDurability(), true);
+            String icon = empty ? null : stack.getItemId();
+            if (values == null) {
+                if (value.equals(previous.values[i]) && Objects.equals(icon, previous.icons[i])) {
+                    continue;
+                }
+                values = previous.values.clone();
+                icons = previous.icons.clone();
+            }
+            values[i] = value;
+            icons[i] = icon;
+        }
+        return values == null ? previous : new Pieces(values, icons);
+    }
+
+    @Override
+    void write(Pieces pieces, HudPatch patch) {
+        for (int i = 0; i < HudText.SLOT_IDS.length; i++) {
+            patch.set(HudText.SLOT_VALUE_SELECTORS[i], pieces.values[i]);
+            patch.setOrNull(HudText.SLOT_ICON_SELECTORS[i], pieces.icons[i]);
+        }
+    }
+
+    @Override
+    boolean probed() {
+        return true;
+    }
+
+    @Override
+    long fingerprint(Player player, ItemContainer[] containers) {
+        ItemContainer armor = containers[HudContainer.ARMOR.ordinal()];
+        long hash = 31L;
+        if (armor == null) {
+            return hash;
+        }
+        int capacity = Math.min(armor.getCapacity(), HudText.SLOT_IDS.length);
+        for (int i = 0; i < capacity; i++) {
+            hash = fingerprint(armor.getItemStack((short) i), hash);
+        }
+        return hash;
+    }
+
+    static final class Pieces {
+        // Never mutated once built
+        final String[] values;
+        final String[] icons;
+
+        Pieces(String[] values, String[] icons) {
+            this.values = values;
+            this.icons = icons;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Running ammo count for one player (arrows unless {@link ItemClassifier} is told otherwise),
+ * kept as per-container per-slot contributions so a container change only rescans that
+ * container instead of the whole combined inventory.
+ * Not thread-safe; owned by the player's refresher shard.
+ */
+final class ArrowTally {
+
+    private final ItemContainer[] containers;
+    private final int[][] counts;
+    private final String[][] icons;
+    private int total;
+    private String iconItemId;
+    private boolean iconStale = true;
+
+    ArrowTally(ItemContainer... containers) {
+        this.containers = containers;
+        this.counts = new int[containers.length][];
+        this.icons = new String[containers.length][];
+    }
+
+    int total() {
+        return total;
+    }
+
+    /**
+     * First arrow item found in container then slot order, or null when there are none.
+     */
+    String iconItemId() {
+        if (iconStale) {
+            iconItemId = findIcon();
+            iconStale = false;
+        }
+        return iconItemId;
+    }
+
+    /**
+     * Rebuilds every contribution from scratch; used on join and as a periodic consistency check.
+     */
+    int rescanAll() {
+        int visited = 0;
+        for (int i = 0; i < containers.length; i++) {
+            visited += rescan(i);
+        }
+        return visited;
+    }
+
+    /**
+     * Re-reads one container and applies the difference to the running total.
+     *
+     * @return number of slots visited
+     */
+    int rescan(int index) {
+        ItemContainer container = containers[index];
+        int capacity = container == null ? 0 : Math.max(0, container.getCapacity());
+        int[] slotCounts = counts[index];
+        String[] slotIcons = icons[index];
+        if (slotCounts == null || slotCounts.length != capacity) {
+            if (slotCounts != null) {
+                for (int count : slotCounts) {
+                    total -= count;
+                }
+            }
+            slotCounts = new int[capacity];
+            slotIcons = new String[capacity];
+            counts[index] = slotCounts;
+            icons[index] = slotIcons;
+            iconStale = true;
+        }
+
+        for (int slot = 0; slot < capacity; slot++) {
+            ItemStack stack = container.getItemStack((short) slot);
+            int count = 0;
+            String icon = null;
+            if (ItemClassifier.isAmmo(stack)) {
+                count = stack.getQuantity();
+                icon = stack.getItemId();
+            }
+            if (count != slotCounts[slot]) {
+                total += count - slotCounts[slot];
+                slotCounts[slot] = count;
+            }
+            if (icon != slotIcons[slot] && (icon == null || !icon.equals(slotIcons[slot]))) {
+                slotIcons[slot] = icon;
+                iconStale = true;
+            }
+        }
+        return capacity;
+    }
+
+    private String findIcon() {
+        for (String[] slotIcons : icons) {
+            if (slotIcons == null) {
+                continue;
+            }
+            for (String icon : slotIcons) {
+                if (icon != null) {
+                    return icon;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Ammo count across the player's inventory. The per-player {@link ArrowTally} is kept between
+ * captures, so a change event only rescans the container that raised it.
+ */
+final class ArrowsSection extends HudSection<ArrowTally, HudSection.Label> {
+
+    // Tally index order; a changed container maps to its position here
+    private static final HudContainer[] SOURCES = {
+        HudContainer.HOTBAR, HudContainer.STORAGE, HudContainer.BACKPACK, HudContainer.UTILITY, HudContainer.TOOLS
+    };
+    private static final Label BLANK = new Label(false, "0", null);
+
+    ArrowsSection() {
+        super("arrows", CadenceController.ARROWS, SOURCES);
+    }
+
+    @Override
+    Label blank() {
+        return BLANK;
+    }
+
+    @Override
+    ArrowTally newState(ItemContainer[] containers) {
+        ItemContainer[] sources = new ItemContainer[SOURCES.length];
+        for (int i = 0; i < SOURCES.length; i++) {
+            sources[i] = containers[SOURCES[i].ordinal()];
+        }
+        return new ArrowTally(sources);
+    }
+
+    @Override
+    Label capture(Player player, ItemContainer[] containers, ArrowTally tally, int changed, Label previous) {
+        if (changed != 0) {
+            scan(player, tally, changed);
+        }
+        int total = tally.total();
+        return total > 0 ? previous.with(true, HudText.count(total), tally.iconItemId()) : BLANK;
+    }
+
+    @Override
+    void write(Label label, HudPatch patch) {
+        label.write(patch, HudText.ARROWS_VISIBLE, HudText.ARROWS_VALUE, HudText.ARROWS_ICON);
+    }
+
+    private static void scan(Player player, ArrowTally tally, int changed) {
+        HudEvents.ArrowScan event = new HudEvents.ArrowScan();
+        event.begin();
+        int visited = 0;
+        int scanned = 0;
+        for (int i = 0; i < SOURCES.length; i++) {
+            if ((changed & SOURCES[i].bit) != 0) {
+                visited += tally.rescan(i);
+                scanned++;
+            }
+        }
+        if (event.shouldCommit()) {
+            event.player = player == null ? null : player.getDisplayName();
+            event.containers = scanned;
+            event.slotsVisited = visited;
+            event.total = tally.total();
+            event.commit();
+        }
+    }
+}
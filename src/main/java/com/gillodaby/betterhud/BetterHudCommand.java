@@ -5,6 +5,7 @@ import com.hypixel.hytale.server.core.command.system.CommandContext;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.Message;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -12,14 +13,20 @@ import java.util.concurrent.CompletableFuture;
  * /betterhud on
  * /betterhud hide
  * /betterhud off
+ * /betterhud stats
+ * /betterhud reload
  */
 final class BetterHudCommand extends AbstractCommand {
 
+    private static final String ADMIN_PERMISSION = "betterhud.admin";
+
     private final BetterHudService service;
+    private final HudConfigWatcher config;
 
-    BetterHudCommand(BetterHudService service) {
+    BetterHudCommand(BetterHudService service, HudConfigWatcher config) {
         super("betterhud", "Show or hide the BetterHUD overlay");
         this.service = service;
+        this.config = config;
 
         // show
         AbstractCommand show = new AbstractCommand("show", "Show the BetterHUD overlay") {
@@ -56,6 +63,24 @@ final class BetterHudCommand extends AbstractCommand {
             }
         };
         addSubCommand(off);
+
+        // stats
+        AbstractCommand stats = new AbstractCommand("stats", "Show BetterHUD performance counters") {
+            @Override
+            protected CompletableFuture<Void> execute(CommandContext ctx) {
+                return handleStats(ctx);
+            }
+        };
+        addSubCommand(stats);
+
+        // reload
+        AbstractCommand reload = new AbstractCommand("reload", "Reload the BetterHUD configuration file") {
+            @Override
+            protected CompletableFuture<Void> execute(CommandContext ctx) {
+                return handleReload(ctx);
+            }
+        };
+        addSubCommand(reload);
     }
 
     @Override
@@ -65,7 +90,9 @@ final class BetterHudCommand extends AbstractCommand {
             "/betterhud show",
             "/betterhud on",
             "/betterhud hide",
-            "/betterhud off"
+            "/betterhud off",
+            "/betterhud stats",
+            "/betterhud reload"
         );
         ctx.sendMessage(Message.raw(help));
         return CompletableFuture.completedFuture(null);
@@ -100,4 +127,24 @@ final class BetterHudCommand extends AbstractCommand {
         ctx.sendMessage(Message.raw("[BetterHUD] HUD is now hidden."));
         return CompletableFuture.completedFuture(null);
     }
+
+    private CompletableFuture<Void> handleStats(CommandContext ctx) {
+        if (!ctx.sender().hasPermission(ADMIN_PERMISSION)) {
+            ctx.sendMessage(Message.raw("[BetterHUD] You do not have permission to use this command."));
+            return CompletableFuture.completedFuture(null);
+        }
+        List<String> lines = HudMetrics.summary();
+        lines.add(0, "[BetterHUD] Stats:");
+        ctx.sendMessage(Message.raw(String.join("\n", lines)));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private CompletableFuture<Void> handleReload(CommandContext ctx) {
+        if (!ctx.sender().hasPermission(ADMIN_PERMISSION)) {
+            ctx.sendMessage(Message.raw("[BetterHUD] You do not have permission to use this command."));
+            return CompletableFuture.completedFuture(null);
+        }
+        ctx.sendMessage(Message.raw("[BetterHUD] " + config.reload()));
+        return CompletableFuture.completedFuture(null);
+    }
 }
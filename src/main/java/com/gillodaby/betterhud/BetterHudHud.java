@@ -1,213 +1,211 @@
 package com.gillodaby.betterhud;
 
-import com.hypixel.hytale.function.consumer.ShortObjectConsumer;
-import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
-import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
 import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.entity.entities.Player;
 
-import java.text.DecimalFormat;
-import java.util.Locale;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Lightweight HUD overlay that does not block player interactions.
  */
 final class BetterHudHud extends CustomUIHud {
 
-    private static final DecimalFormat PERCENT = new DecimalFormat("0");
-    private static final DecimalFormat COUNT = new DecimalFormat("###,###");
-    private static final String[] SLOT_IDS = {"Head", "Chest", "Legs", "Feet"};
-    private static final String ARROW_TOKEN = "weapon_arrow";
-    private Player cachedPlayer;
-    private ItemContainer cachedArmor;
-    private ItemContainer cachedAllItems;
-
-    BetterHudHud(PlayerRef ref) {
+    private static final String LAYOUT = "Pages/GilloDaby_BetterHUD.ui";
+    // Latest values for this player; replaced whole, never mutated, so readers need no lock
+    private final AtomicReference<HudSnapshot> snapshot = new AtomicReference<>(HudSnapshot.EMPTY);
+    // Sections published but not yet sent, and whether some thread is sending them right now
+    private final AtomicInteger unsent = new AtomicInteger();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // Last value sent to the client per selector, guarded by this
+    private final Map<String, Object> sent = new HashMap<>();
+    // Whether the client currently holds our .ui document, guarded by this
+    private boolean layoutSent;
+    // Detached sections whose own document the client holds too, guarded by this
+    private int attached;
+    private final UpdateBudget budget;
+    private final int budgetShard;
+
+    BetterHudHud(PlayerRef ref, UpdateBudget budget, int budgetShard) {
         super(ref);
+        this.budget = budget;
+        this.budgetShard = budgetShard;
     }
 
     @Override
-    protected void build(UICommandBuilder builder) {
-        writeHud(builder, cachedArmor, cachedPlayer, cachedAllItems);
+    protected synchronized void build(UICommandBuilder builder) {
+        // The client rebuilds from scratch, so every value is sent and becomes the new baseline
+        HudSnapshot current = snapshot.get();
+        appendLayout(builder, current);
+        sent.clear();
+        layoutSent = true;
+        current.write(new HudPatch(builder, sent, true), writable(HudSections.mask()));
     }
 
-    void refresh(Player player, ItemContainer armor, ItemContainer allItems) {
-        this.cachedPlayer = player;
-        this.cachedArmor = armor;
-        this.cachedAllItems = allItems;
-        UICommandBuilder builder = new UICommandBuilder();
-        writeHud(builder, armor, player, allItems);
-        // partial update is enough now that layout is static
-        update(false, builder);
+    private void appendLayout(UICommandBuilder builder, HudSnapshot current) {
+        builder.append(LAYOUT);
+        attached = 0;
+        attached = attach(builder, current);
     }
 
-    void refreshArmor(Player player, ItemContainer armor) {
-        this.cachedPlayer = player;
-        this.cachedArmor = armor;
-        UICommandBuilder builder = new UICommandBuilder();
-        builder.append("Pages/GilloDaby_BetterHUD.ui");
-        writeArmorSection(builder, armor, player);
-        update(false, builder);
+    /**
+     * Appends the documents of detached sections the client lacks and whose values now need them.
+     *
+     * @return the sections appended
+     */
+    private int attach(UICommandBuilder builder, HudSnapshot current) {
+        HudSection<?, ?>[] all = HudSections.all();
+        int appended = 0;
+        for (int i = 0, remaining = HudSections.detached() & ~attached; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0 && all[i].needsLayoutRaw(current.value(all[i]))) {
+                builder.append(all[i].layout());
+                appended |= 1 << i;
+            }
+        }
+        return appended;
     }
 
-    void refreshArrows(Player player, ItemContainer allItems) {
-        this.cachedPlayer = player;
-        this.cachedAllItems = allItems;
-        UICommandBuilder builder = new UICommandBuilder();
-        builder.append("Pages/GilloDaby_BetterHUD.ui");
-        writeArrowsSection(builder, allItems);
-        update(false, builder);
+    /**
+     * Drops the detached sections whose elements the client does not have.
+     */
+    private int writable(int sections) {
+        return sections & ~(HudSections.detached() & ~attached);
     }
 
-    void refreshMainHand(Player player) {
-        this.cachedPlayer = player;
-        UICommandBuilder builder = new UICommandBuilder();
-        builder.append("Pages/GilloDaby_BetterHUD.ui");
-        writeMainHandSection(builder, player);
-        update(false, builder);
+    /**
+     * The values published by the latest refresh, whether or not they were sent yet.
+     */
+    HudSnapshot snapshot() {
+        return snapshot.get();
     }
 
-    private void writeHud(UICommandBuilder builder, ItemContainer armor, Player player, ItemContainer allItems) {
-        builder.append("Pages/GilloDaby_BetterHUD.ui");
-        writeArmorSection(builder, armor, player);
-        writeArrowsSection(builder, allItems);
-        writeMainHandSection(builder, player);
+    /**
+     * Forgets what the client has, so the next refresh appends the layout and resends every value.
+     */
+    synchronized void invalidateLayout() {
+        layoutSent = false;
+        attached = 0;
+        sent.clear();
     }
 
-    private void writeArmorSection(UICommandBuilder builder, ItemContainer armor, Player player) {
-        if (armor == null || player == null) {
-            clearArmor(builder);
-            return;
-        }
-
-        int capacity = Math.min(armor.getCapacity(), SLOT_IDS.length);
-        for (int i = 0; i < SLOT_IDS.length; i++) {
-            String id = SLOT_IDS[i];
-            String valueSelector = "#" + id + "Value.Text";
-            String iconSelector = "#" + id + "Icon.ItemId";
-
-            if (i >= capacity) {
-                builder.set(valueSelector, "");
-                builder.setNull(iconSelector);
-                continue;
-            }
+    /**
+     * Captures every section and publishes the snapshot without sending it, for a HUD about to be
+     * shown: {@link #build} delivers the layout and these values in the same packet.
+     */
+    void prime(Player player, ItemContainer[] containers, Object[] states) {
+        publish(player, containers, states, HudSections.mask(), HudContainer.ALL);
+    }
 
-            ItemStack stack = armor.getItemStack((short) i);
-            if (stack == null || stack.isEmpty()) {
-                builder.set(valueSelector, "");
-                builder.setNull(iconSelector);
-                continue;
+    /**
+     * Captures the requested sections into a new snapshot, publishes it, then sends every unsent
+     * section in one update. A refresh that arrives while another thread is sending only publishes;
+     * the sending thread picks its sections up before it finishes, so the same values are never
+     * rendered twice at once.
+     *
+     * @return false when the update budget was exhausted and nothing was sent; the caller retries later
+     */
+    boolean refreshSections(Player player, ItemContainer[] containers, Object[] states, int sections, int changed) {
+        HudEvents.SectionRefresh event = new HudEvents.SectionRefresh();
+        event.begin();
+        HudSnapshot captured = publish(player, containers, states, sections, changed);
+        unsent.getAndAccumulate(sections, (a, b) -> a | b);
+
+        boolean delivered = true;
+        while (delivered && unsent.get() != 0 && sending.compareAndSet(false, true)) {
+            try {
+                int due = unsent.getAndSet(0);
+                if (due != 0 && !sendSections(due, event)) {
+                    // Left for whichever refresh comes next; the caller is told to schedule one
+                    unsent.getAndAccumulate(due, (a, b) -> a | b);
+                    delivered = false;
+                }
+            } finally {
+                sending.set(false);
             }
-
-            double max = stack.getMaxDurability();
-            double current = stack.getDurability();
-            double pct = (max <= 0) ? 100.0 : Math.max(0, Math.min(100, (current / max) * 100.0));
-            String text = (max <= 0) ? "INF" : PERCENT.format(pct) + "%";
-            // add a space before value so name and value don't touch
-            text = " " + text;
-
-            builder.set(valueSelector, text);
-            builder.set(iconSelector, stack.getItemId());
         }
-    }
-
-    private void clearArmor(UICommandBuilder builder) {
-        for (String id : SLOT_IDS) {
-            builder.set("#" + id + "Value.Text", "");
-            builder.setNull("#" + id + "Icon.ItemId");
+        if (event.shouldCommit()) {
+            event.player = captured.playerName;
+            event.sections = HudSections.names(event.layout ? HudSections.mask() : sections);
+            event.deferred = !delivered;
+            event.commit();
         }
+        return delivered;
     }
 
-    private void writeArrowsSection(UICommandBuilder builder, ItemContainer allItems) {
-        String valueSelector = "#ArrowsValue.Text";
-        String iconSelector = "#ArrowsIcon.ItemId";
-
-        if (allItems == null) {
-            hideArrows(builder);
-            return;
+    private HudSnapshot publish(Player player, ItemContainer[] containers, Object[] states, int sections, int changed) {
+        HudSnapshot base = snapshot.get();
+        HudSnapshot captured = base.capture(player, containers, states, sections, changed);
+        // Refreshes of one player normally run on its shard only, so the merge is the rare path
+        HudSnapshot previous = base;
+        while (!snapshot.compareAndSet(previous, previous == base ? captured : previous.merge(captured, sections))) {
+            previous = snapshot.get();
         }
+        return captured;
+    }
 
-        ArrowSummary summary = countArrows(allItems);
-        boolean hasArrows = summary.total > 0;
-        builder.set("#Arrows.Visible", hasArrows);
-        builder.set(valueSelector, hasArrows ? COUNT.format(summary.total) : "0");
-        if (!hasArrows || summary.iconItemId == null) {
-            builder.setNull(iconSelector);
+    private synchronized boolean sendSections(int sections, HudEvents.SectionRefresh event) {
+        HudSnapshot current = snapshot.get();
+        boolean layout = !layoutSent;
+        HudPatch patch;
+        boolean delivered;
+        if (layout) {
+            UICommandBuilder builder = new UICommandBuilder();
+            appendLayout(builder, current);
+            sent.clear();
+            layoutSent = true;
+            patch = new HudPatch(builder, sent, true);
+            current.write(patch, writable(HudSections.mask()));
+            delivered = send(patch);
+            if (!delivered) {
+                invalidateLayout();
+            }
         } else {
-            builder.set(iconSelector, summary.iconItemId);
+            UICommandBuilder builder = new UICommandBuilder();
+            // A section that just started needing its document gets it with its first values
+            int appended = attach(builder, current);
+            attached |= appended;
+            patch = new HudPatch(builder, sent, false);
+            current.write(patch, writable(sections | appended));
+            delivered = send(patch);
+            if (!delivered) {
+                attached &= ~appended;
+            }
         }
+        event.layout |= layout;
+        event.fieldsChanged += patch.changes();
+        return delivered;
     }
 
-    private void hideArrows(UICommandBuilder builder) {
-        builder.set("#Arrows.Visible", false);
-        builder.set("#ArrowsValue.Text", "0");
-        builder.setNull("#ArrowsIcon.ItemId");
-    }
-
-    private void writeMainHandSection(UICommandBuilder builder, Player player) {
-        String visibleSelector = "#MainHand.Visible";
-        String valueSelector = "#MainValue.Text";
-        String iconSelector = "#MainIcon.ItemId";
-
-        if (player == null) {
-            hideMainHand(builder);
-            return;
+    /**
+     * Sends a non-empty patch if the update budget allows it, otherwise reverts it so the
+     * dropped values count as unsent and the next refresh carries the newest state instead.
+     */
+    private boolean send(HudPatch patch) {
+        if (patch.isEmpty()) {
+            HudMetrics.UPDATES_SUPPRESSED.increment();
+            return true;
         }
-
-        ItemStack stack = player.getInventory().getItemInHand();
-        if (stack == null || stack.isEmpty()) {
-            hideMainHand(builder);
-            return;
+        if (!budget.tryAcquire(budgetShard)) {
+            patch.revert();
+            HudMetrics.UPDATES_DEFERRED.increment();
+            return false;
         }
-
-        Item item = stack.getItem();
-        boolean isTool = item != null && (item.getTool() != null || item.getWeapon() != null);
-        if (!isTool) {
-            hideMainHand(builder);
-            return;
+        long start = System.nanoTime();
+        try {
+            update(false, patch.builder());
+        } catch (RuntimeException e) {
+            // The client may not have received these values; resend the layout and everything next time
+            invalidateLayout();
+            throw e;
         }
-
-        double max = stack.getMaxDurability();
-        double current = stack.getDurability();
-        double pct = (max <= 0) ? 100.0 : Math.max(0, Math.min(100, (current / max) * 100.0));
-        String text = (max <= 0) ? "INF" : PERCENT.format(pct) + "%";
-
-        builder.set(visibleSelector, true);
-        builder.set(valueSelector, text);
-        builder.set(iconSelector, stack.getItemId());
-    }
-
-    private void hideMainHand(UICommandBuilder builder) {
-        builder.set("#MainHand.Visible", false);
-        builder.set("#MainValue.Text", "");
-        builder.setNull("#MainIcon.ItemId");
-    }
-
-    private ArrowSummary countArrows(ItemContainer allItems) {
-        ArrowSummary summary = new ArrowSummary();
-        ShortObjectConsumer<ItemStack> counter = (short slot, ItemStack stack) -> {
-            if (stack == null || stack.isEmpty()) {
-                return;
-            }
-            String itemId = stack.getItemId();
-            String lower = itemId == null ? null : itemId.toLowerCase(Locale.ROOT);
-            if (lower != null && lower.contains(ARROW_TOKEN)) {
-                summary.total += stack.getQuantity();
-                if (summary.iconItemId == null) {
-                    summary.iconItemId = itemId;
-                }
-            }
-        };
-
-        allItems.forEach(counter);
-        return summary;
-    }
-
-    private static final class ArrowSummary {
-        int total = 0;
-        String iconItemId = null;
+        HudMetrics.UPDATE_NANOS.record(System.nanoTime() - start);
+        HudMetrics.UPDATES_SENT.increment();
+        return true;
     }
 }
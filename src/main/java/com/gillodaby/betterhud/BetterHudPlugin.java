@@ -8,9 +8,16 @@ import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.server.core.command.system.CommandManager;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
 public class BetterHudPlugin extends JavaPlugin {
 
     private BetterHudService service;
+    private MetricsExporter metricsExporter;
+    private HudPreferences preferences;
+    private HudConfigWatcher configWatcher;
 
     public BetterHudPlugin(JavaPluginInit init) {
         super(init);
@@ -23,17 +30,67 @@ public class BetterHudPlugin extends JavaPlugin {
     @Override
     public void start() {
         EventBus bus = HytaleServer.get().getEventBus();
-        service = new BetterHudService();
+        preferences = HudPreferences.load(getDataDirectory().resolve("preferences.bin"));
+        preferences.start();
+        Path configFile = getDataDirectory().resolve(HudConfig.FILE_NAME);
+        HudConfig config;
+        try {
+            config = HudConfig.load(configFile);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("[BetterHUD] Failed to read " + configFile + ", using defaults: " + e.getMessage());
+            config = HudConfig.defaults();
+        }
+        service = new BetterHudService(preferences, config);
 
         bus.registerGlobal(PlayerReadyEvent.class, service::handlePlayerReady);
         bus.registerGlobal(PlayerDisconnectEvent.class, service::handlePlayerDisconnect);
 
         service.start();
+        // Resolve the MultipleHUD map accessor now so a mismatch is logged once at startup
+        MultipleHudPatcher.available();
+
+        metricsExporter = new MetricsExporter(getDataDirectory());
+        metricsExporter.start();
+
+        configWatcher = new HudConfigWatcher(configFile, service);
+        configWatcher.start();
         
         // Register command
         CommandManager commandManager = CommandManager.get();
-        commandManager.register(new BetterHudCommand(service));
+        commandManager.register(new BetterHudCommand(service, configWatcher));
         
         System.out.println("[BetterHUD] Started and waiting for players.");
     }
+
+    /**
+     * Puts the player in a team whose members see each other's armor and arrows, for party or
+     * guild plugins to call; null leaves the current team. The assignment survives reconnects
+     * until it is cleared or the server stops.
+     */
+    public void setTeam(UUID player, String team) {
+        HudTeams.join(player, team);
+    }
+
+    /**
+     * @return the player's team, or null
+     */
+    public String getTeam(UUID player) {
+        return HudTeams.teamOf(player);
+    }
+
+    @Override
+    public void shutdown() {
+        if (service != null) {
+            service.stop();
+        }
+        if (configWatcher != null) {
+            configWatcher.stop();
+        }
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+        }
+        if (preferences != null) {
+            preferences.stop();
+        }
+    }
 }
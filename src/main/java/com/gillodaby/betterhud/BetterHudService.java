@@ -5,41 +5,252 @@ import com.hypixel.hytale.event.EventRegistration;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
 import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
-import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 final class BetterHudService {
 
     private final Map<UUID, TrackedHud> huds = new ConcurrentHashMap<>();
     private final Map<UUID, TrackedHud> hiddenHuds = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService refresher;
-    private static final long REFRESH_INTERVAL_MS = 1000;
-    private static final long ARMOR_REFRESH_MS = 5000;
-    private static final long ARROWS_REFRESH_MS = 2000;
-    private static final long MAIN_REFRESH_MS = 1000;
+    private final Map<Integer, TrackedHud> handles = new ConcurrentHashMap<>();
+    private final AtomicInteger nextHandle = new AtomicInteger();
+    // A player always maps to the same shard, which keeps its refreshes ordered
+    private final Shard[] shards;
+    private final CadenceController cadence;
+    private final UpdateBudget budget;
+    private final HudPreferences preferences;
+    // Replaced whole by applyConfig; every reader takes one instance per decision
+    private volatile HudConfig config;
+    private boolean started;
+    // Reaper scheduling, only touched on shard 0's thread
+    private ScheduledFuture<?> reapTask;
+    private long reapInterval = -1L;
+    // Players waiting for their HUD; the map finds them on disconnect, the queue orders them by due time
+    private final Map<UUID, PendingOpen> pendingOpens = new ConcurrentHashMap<>();
+    private final PriorityBlockingQueue<PendingOpen> openQueue = new PriorityBlockingQueue<>(64,
+        Comparator.comparingLong((PendingOpen pending) -> pending.readyAt));
+    // Only touched by the admission task
+    private double openCredits;
+    // Read once at startup; changing it needs a restart since players are hashed to shards
+    private static final int SHARD_COUNT = Integer.getInteger("betterhud.shards", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int TOKEN_QUEUE_CAPACITY = 1 << 14;
+    private static final long CADENCE_RECOMPUTE_MS = 1000;
+    private static final long ADMIT_TICK_MS = 100;
+    private static final long SHUTDOWN_WAIT_MS = 2000;
+    // Token kind asking the shard to retry a HUD whose update the budget deferred
+    private static final int RETRY_KIND = 0xFF;
+    // Token kind telling a viewer that a teammate's summary or the team roster changed
+    private static final int TEAM_KIND = 0xFE;
 
     BetterHudService() {
-        ThreadFactory factory = runnable -> {
-            Thread t = new Thread(runnable, "BetterHUD-Refresher");
-            t.setDaemon(true);
-            return t;
-        };
-        this.refresher = Executors.newSingleThreadScheduledExecutor(factory);
+        this(HudPreferences.inMemory(), HudConfig.defaults());
     }
 
-    void start() {
-        refresher.scheduleAtFixedRate(this::refreshAll, REFRESH_INTERVAL_MS, REFRESH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    BetterHudService(HudPreferences preferences, HudConfig config) {
+        this.preferences = preferences;
+        this.config = config;
+        this.shards = new Shard[Math.max(1, SHARD_COUNT)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(i);
+        }
+        this.cadence = new CadenceController(shards.length, config);
+        this.budget = new UpdateBudget(config.updateBudget, config.updateBudgetWindowMs, shards.length);
+        if (!config.ammoTokens.equals(ItemClassifier.ammoTokens())) {
+            ItemClassifier.setAmmoTokens(config.ammoTokens);
+        }
+        HudMetrics.gauge("betterhud_huds{state=\"visible\"}", "Tracked HUDs by visibility", huds::size);
+        HudMetrics.gauge("betterhud_huds{state=\"hidden\"}", null, hiddenHuds::size);
+        HudMetrics.gauge("betterhud_shards", "Refresher shards", () -> shards.length);
+        HudMetrics.gauge("betterhud_cadence_pressure_permille", "Load pressure driving the refresh cadence, 0 to 1000",
+            () -> Math.round(cadence.pressure() * 1000));
+        HudMetrics.gauge("betterhud_hud_activity{state=\"active\"}", "Visible HUDs by idle state", () -> countMembers(false));
+        HudMetrics.gauge("betterhud_hud_activity{state=\"suspended\"}", null, () -> countMembers(true));
+        HudMetrics.gauge("betterhud_preferences_stored", "Players with non-default HUD preferences", preferences::size);
+        HudMetrics.gauge("betterhud_open_queue_length", "Players waiting for their HUD to open", pendingOpens::size);
+        HudMetrics.gauge("betterhud_update_budget", "HUD updates allowed per budget window, 0 when unlimited", budget::permitsPerWindow);
+        HudMetrics.gauge("betterhud_update_budget_remaining", "HUD updates left in the current budget window", budget::remaining);
+        HudMetrics.gauge("betterhud_update_queue_depth", "HUDs waiting for an update across all shards", () -> {
+            long depth = 0;
+            for (Shard shard : shards) {
+                depth += shard.queued;
+            }
+            return depth;
+        });
+        for (int i = 0; i < CadenceController.NAMES.length; i++) {
+            int section = i;
+            HudMetrics.gauge("betterhud_cadence_interval_ms{section=\"" + CadenceController.NAMES[i] + "\"}",
+                i == 0 ? "Current refresh interval by section" : null, () -> cadence.interval(section));
+        }
+    }
+
+    private long countMembers(boolean suspended) {
+        long count = 0;
+        for (Shard shard : shards) {
+            for (TrackedHud tracked : shard.members) {
+                if (tracked.visible && tracked.suspended == suspended) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    synchronized void start() {
+        started = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        shards[0].executor.scheduleAtFixedRate(() -> cadence.recompute(huds.size()),
+            CADENCE_RECOMPUTE_MS, CADENCE_RECOMPUTE_MS, TimeUnit.MILLISECONDS);
+        shards[0].executor.scheduleAtFixedRate(this::admitOpens, ADMIT_TICK_MS, ADMIT_TICK_MS, TimeUnit.MILLISECONDS);
+        shards[0].executor.execute(this::scheduleReaper);
+    }
+
+    /**
+     * Stops every shard, waiting up to two seconds in total for the work already running,
+     * then drops all listeners and queued opens. HUDs are not hidden: the server is going away
+     * with them.
+     */
+    synchronized void stop() {
+        started = false;
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_WAIT_MS);
+        boolean interrupted = false;
+        for (Shard shard : shards) {
+            try {
+                long remaining = Math.max(0L, deadline - System.nanoTime());
+                if (!shard.executor.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                    shard.executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                shard.executor.shutdownNow();
+                interrupted = true;
+            }
+        }
+        pendingOpens.clear();
+        openQueue.clear();
+        for (Map<UUID, TrackedHud> map : List.of(huds, hiddenHuds)) {
+            for (TrackedHud tracked : map.values()) {
+                forget(tracked);
+                tracked.unregisterListeners();
+            }
+            map.clear();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    HudConfig config() {
+        return config;
+    }
+
+    /**
+     * Swaps in a new configuration while every HUD stays open. Shards move their drain and probe
+     * ticks on their own thread, between two passes, so no change token or dirty HUD is lost;
+     * the sweep and the open queue pick the new values up on their next run.
+     *
+     * @return the settings that changed, as {@code key=value}
+     */
+    synchronized List<String> applyConfig(HudConfig next) {
+        HudConfig previous = config;
+        List<String> changes = next.changesFrom(previous);
+        if (changes.isEmpty()) {
+            return changes;
+        }
+        config = next;
+        cadence.configure(next);
+        budget.configure(next.updateBudget, next.updateBudgetWindowMs);
+        if (!next.ammoTokens.equals(previous.ammoTokens)) {
+            ItemClassifier.setAmmoTokens(next.ammoTokens);
+            // Every arrow tally was counted with the old tokens
+            for (Shard shard : shards) {
+                shard.requestResync();
+            }
+        }
+        if (started) {
+            for (Shard shard : shards) {
+                shard.executor.execute(shard::schedulePasses);
+            }
+            shards[0].executor.execute(this::scheduleReaper);
+        }
+        return changes;
+    }
+
+    /**
+     * Starts, moves or stops the reaper to match {@code reapIntervalMs}; 0 stops it. Runs on shard 0.
+     */
+    private void scheduleReaper() {
+        long interval = config.reapIntervalMs;
+        if (interval == reapInterval) {
+            return;
+        }
+        if (reapTask != null) {
+            reapTask.cancel(false);
+            reapTask = null;
+        }
+        reapInterval = interval;
+        if (interval > 0) {
+            reapTask = shards[0].executor.scheduleWithFixedDelay(this::reapStale, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Closes HUDs whose player left without a usable disconnect event, so their listeners,
+     * containers and snapshots do not pile up over a long uptime.
+     */
+    private void reapStale() {
+        reapStale(huds);
+        reapStale(hiddenHuds);
+        for (Map.Entry<UUID, PendingOpen> entry : pendingOpens.entrySet()) {
+            PendingOpen pending = entry.getValue();
+            if (pending.player.wasRemoved() && pendingOpens.remove(entry.getKey(), pending)) {
+                pending.cancelled = true;
+                HudMetrics.REAPED.increment();
+            }
+        }
+    }
+
+    private void reapStale(Map<UUID, TrackedHud> tracked) {
+        for (Map.Entry<UUID, TrackedHud> entry : tracked.entrySet()) {
+            TrackedHud hud = entry.getValue();
+            if (!hud.stale() || !tracked.remove(entry.getKey(), hud)) {
+                continue;
+            }
+            forget(hud);
+            try {
+                hud.close();
+            } catch (Throwable t) {
+                HudMetrics.ERRORS_SWEEP.increment();
+            }
+            HudMetrics.REAPED.increment();
+        }
+    }
+
+    private Shard shardFor(UUID id) {
+        return shards[Math.floorMod(id.hashCode(), shards.length)];
     }
 
     void handlePlayerReady(PlayerReadyEvent event) {
@@ -49,93 +260,234 @@ final class BetterHudService {
 
         TrackedHud hidden = hiddenHuds.remove(id);
         if (hidden != null) {
+            forget(hidden);
             hidden.close();
         }
 
-        var inventory = player.getInventory();
-        ItemContainer armor = inventory.getArmor();
-        ItemContainer hotbar = inventory.getHotbar();
-        ItemContainer storage = inventory.getStorage();
-        ItemContainer backpack = inventory.getBackpack();
-        ItemContainer utility = inventory.getUtility();
-        ItemContainer tools = inventory.getTools();
         TrackedHud existing = huds.get(id);
         if (existing != null) {
-            refreshHud(existing, System.currentTimeMillis());
+            existing.shard.executor.execute(() -> refreshSections(existing, HudSections.mask()));
             return;
         }
 
-        // Defer opening the HUD to let the client finish ClientReady and asset downloads
-        refresher.schedule(() -> {
-            try {
-                BetterHudHud hud = new BetterHudHud(playerRef);
-                refreshHud(hud, player, armor);
-                MultipleHUD.getInstance().setCustomHud(player, playerRef, "BetterHUD", hud);
-                ensureThreadSafeMultipleHud(player);
-                List<EventRegistration> listeners = new ArrayList<>();
-                TrackedHud tracked = new TrackedHud(hud, listeners, armor, player);
-                long now = System.currentTimeMillis();
-                tracked.lastArmorRefresh = now;
-                tracked.lastArrowsRefresh = now;
-                tracked.lastMainRefresh = now;
-                listeners.add(registerListener(armor, tracked, RefreshKind.ARMOR));
-                listeners.add(registerListener(hotbar, tracked, RefreshKind.MAIN_AND_ARROWS));
-                listeners.add(registerListener(storage, tracked, RefreshKind.ARROWS));
-                listeners.add(registerListener(backpack, tracked, RefreshKind.ARROWS));
-                listeners.add(registerListener(utility, tracked, RefreshKind.ARROWS));
-                listeners.add(registerListener(tools, tracked, RefreshKind.ARROWS));
-                huds.put(id, tracked);
-                System.out.println("[BetterHUD] HUD overlay shown for " + player.getDisplayName());
-            } catch (Throwable t) {
-                System.out.println("[BetterHUD] Failed to show HUD for " + player.getDisplayName() + ": " + t.getMessage());
+        // Players who hid the HUD keep it hidden across logins; /betterhud show opens it on demand
+        if (preferences.isHidden(id)) {
+            return;
+        }
+
+        // Wait for the client to finish ClientReady and asset downloads; jitter spreads a reconnect wave
+        HudConfig current = config;
+        long jitter = current.openJitterMs <= 0 ? 0 : ThreadLocalRandom.current().nextLong(current.openJitterMs + 1);
+        queueOpen(player, playerRef, current.openDelayMs + jitter);
+    }
+
+    private void queueOpen(Player player, PlayerRef playerRef, long delayMs) {
+        UUID id = playerRef.getUuid();
+        PendingOpen pending = new PendingOpen(player, playerRef, System.nanoTime(),
+            System.currentTimeMillis() + delayMs);
+        PendingOpen replaced = pendingOpens.put(id, pending);
+        if (replaced != null) {
+            replaced.cancelled = true;
+        }
+        openQueue.add(pending);
+    }
+
+    /**
+     * Hands due opens to their shards, at most {@code openRate} per second on average, in the
+     * order they became due. Runs on one shard thread only.
+     */
+    private void admitOpens() {
+        long now = System.currentTimeMillis();
+        double perTick = config.openRate * ADMIT_TICK_MS / 1000.0;
+        openCredits = Math.min(Math.max(1.0, perTick), openCredits + perTick);
+        PendingOpen pending;
+        while ((pending = openQueue.peek()) != null) {
+            if (pending.cancelled) {
+                openQueue.poll();
+                continue;
+            }
+            if (pending.readyAt > now || openCredits < 1.0) {
+                return;
             }
-        }, 2, TimeUnit.SECONDS);
+            openQueue.poll();
+            openCredits -= 1.0;
+            PendingOpen admitted = pending;
+            Shard shard = shardFor(admitted.playerRef.getUuid());
+            shard.executor.execute(() -> openAdmitted(admitted, shard));
+        }
+    }
+
+    private void openAdmitted(PendingOpen pending, Shard shard) {
+        UUID id = pending.playerRef.getUuid();
+        if (pending.cancelled || pending.player.wasRemoved()) {
+            pendingOpens.remove(id, pending);
+            return;
+        }
+        TrackedHud tracked = openHud(pending.player, pending.playerRef, shard);
+        pendingOpens.remove(id, pending);
+        // The player may have disconnected while the HUD was being built
+        if (tracked != null && pending.cancelled && huds.remove(id, tracked)) {
+            forget(tracked);
+            tracked.close();
+            return;
+        }
+        if (tracked != null) {
+            HudMetrics.TIME_TO_HUD_NANOS.record(System.nanoTime() - pending.readyNanos);
+        }
+    }
+
+    /**
+     * Opens the HUD on the calling thread without the join delay; used by the benchmarks and load harness.
+     */
+    void openNow(Player player) {
+        PlayerRef playerRef = player.getPlayerRef();
+        openHud(player, playerRef, shardFor(playerRef.getUuid()));
+    }
+
+    /**
+     * Refreshes sections on the calling thread instead of the player's shard; used by the benchmarks.
+     */
+    void refreshNow(Player player, int sections) {
+        TrackedHud tracked = huds.get(player.getPlayerRef().getUuid());
+        if (tracked != null) {
+            refreshSections(tracked, sections);
+        }
+    }
+
+    /**
+     * @return the new tracked HUD, or null if opening failed
+     */
+    private TrackedHud openHud(Player player, PlayerRef playerRef, Shard shard) {
+        HudEvents.HudLifecycle event = new HudEvents.HudLifecycle();
+        event.begin();
+        TrackedHud opened = null;
+        try {
+            // Resolved now rather than at join, in case the inventory swapped containers meanwhile
+            ItemContainer[] containers = HudContainer.resolve(player);
+            Object[] states = HudSections.newStates(containers);
+            BetterHudHud hud = new BetterHudHud(playerRef, budget, shard.index);
+            // Showing the HUD builds it, which sends the layout and this snapshot in one packet
+            hud.prime(player, containers, states);
+            MultipleHUD.getInstance().setCustomHud(player, playerRef, "BetterHUD", hud);
+            ensureThreadSafeMultipleHud(player);
+            List<EventRegistration> listeners = new ArrayList<>();
+            TrackedHud tracked = new TrackedHud(nextHandle.incrementAndGet(), shard, hud, listeners, containers, states, player);
+            handles.put(tracked.handle, tracked);
+            shard.members.add(tracked);
+            long teamToken = ((long) tracked.handle << 8) | TEAM_KIND;
+            tracked.teamViewer = () -> shard.offer(teamToken);
+            tracked.teamMember = HudTeams.subscribe(playerRef.getUuid(), tracked.teamViewer);
+            HudTeams.publish(tracked.teamMember, hud.snapshot());
+            // One listener per container, however many sections read it
+            for (HudContainer container : HudContainer.VALUES) {
+                listeners.add(registerListener(containers[container.ordinal()], tracked, container));
+            }
+            // Spread first main-hand probes of players joining together across one interval
+            tracked.nextMainPoll = System.currentTimeMillis() + (tracked.handle * 97L) % cadence.interval(CadenceController.MAIN_POLL);
+            huds.put(playerRef.getUuid(), tracked);
+            System.out.println("[BetterHUD] HUD overlay shown for " + player.getDisplayName());
+            opened = tracked;
+            event.succeeded = true;
+        } catch (Throwable t) {
+            HudMetrics.ERRORS_OPEN.increment();
+            System.out.println("[BetterHUD] Failed to show HUD for " + player.getDisplayName() + ": " + t.getMessage());
+        }
+        if (event.shouldCommit()) {
+            event.player = player.getDisplayName();
+            event.action = "open";
+            event.commit();
+        }
+        return opened;
     }
 
     void handlePlayerDisconnect(PlayerDisconnectEvent event) {
         PlayerRef playerRef = event.getPlayerRef();
         if (playerRef == null) return;
         UUID id = playerRef.getUuid();
+        PendingOpen pending = pendingOpens.remove(id);
+        if (pending != null) {
+            pending.cancelled = true;
+        }
         TrackedHud tracked = huds.remove(id);
         if (tracked != null) {
+            forget(tracked);
             tracked.close();
         }
         TrackedHud hidden = hiddenHuds.remove(id);
         if (hidden != null) {
+            forget(hidden);
             hidden.close();
         }
     }
 
-    private void refreshAll() {
-        long now = System.currentTimeMillis();
-        for (TrackedHud tracked : huds.values()) {
-            try {
-                refreshHud(tracked, now);
-            } catch (Throwable ignored) {
-            }
+    private void forget(TrackedHud tracked) {
+        handles.remove(tracked.handle);
+        tracked.shard.members.remove(tracked);
+        if (tracked.teamMember != null) {
+            HudTeams.unsubscribe(tracked.teamMember, tracked.teamViewer);
+        }
+    }
+
+    /**
+     * @return false when the update budget deferred the update; the HUD is left dirty for the next drain
+     */
+    private boolean flush(TrackedHud tracked) {
+        int sections = tracked.dirty;
+        int changedContainers = tracked.dirtyContainers;
+        int events = tracked.pendingEvents;
+        tracked.dirty = 0;
+        tracked.dirtyContainers = 0;
+        tracked.pendingEvents = 0;
+        if (sections == 0 || !tracked.visible) {
+            return true;
+        }
+        Player player = tracked.player();
+        if (player == null || player.wasRemoved()) {
+            return true;
+        }
+        if ((sections & HudSections.MAIN_HAND.bit()) != 0) {
+            trackMainHandWear(tracked, System.currentTimeMillis());
         }
+        long start = System.nanoTime();
+        // Stateful sections only rescan the containers that reported a change
+        boolean delivered = tracked.hud.refreshSections(player, tracked.containers, tracked.states, sections, changedContainers);
+        publishToTeam(tracked, sections);
+        if (!delivered) {
+            // Section state is already current, only the sections and event count need restoring
+            tracked.dirty = sections;
+            tracked.pendingEvents = events;
+            return false;
+        }
+        HudMetrics.FLUSH_NANOS.record(System.nanoTime() - start);
+        HudSections.countRefreshes(sections);
+        HudMetrics.COALESCED_FLUSHES.increment();
+        HudMetrics.COALESCED_EVENTS.add(events);
+        HudMetrics.MAX_EVENTS_PER_FLUSH.accumulate(events);
+        return true;
     }
 
     void refreshPlayer(Player player) {
         if (player == null) return;
         TrackedHud tracked = huds.get(player.getPlayerRef().getUuid());
         if (tracked != null) {
-            long now = System.currentTimeMillis();
-            tracked.lastArmorRefresh = 0L;
-            tracked.lastArrowsRefresh = 0L;
-            tracked.lastMainRefresh = 0L;
-            refreshHud(tracked, now);
+            tracked.shard.executor.execute(() -> refreshSections(tracked, HudSections.mask()));
         }
     }
 
     void hideHud(Player player) {
         if (player == null) return;
         UUID id = player.getPlayerRef().getUuid();
+        preferences.setHidden(id, true);
+        PendingOpen pending = pendingOpens.remove(id);
+        if (pending != null) {
+            pending.cancelled = true;
+        }
         TrackedHud tracked = huds.remove(id);
         if (tracked != null) {
             tracked.visible = false;
             hiddenHuds.put(id, tracked);
             MultipleHUD.getInstance().hideCustomHud(player, player.getPlayerRef(), "BetterHUD");
+            tracked.hud.invalidateLayout();
             System.out.println("[BetterHUD] HUD hidden for " + player.getDisplayName());
         }
     }
@@ -143,163 +495,484 @@ final class BetterHudService {
     void showHud(Player player) {
         if (player == null) return;
         UUID id = player.getPlayerRef().getUuid();
+        preferences.setHidden(id, false);
         TrackedHud tracked = hiddenHuds.remove(id);
+        if (tracked == null && !huds.containsKey(id) && !pendingOpens.containsKey(id)) {
+            // Hidden since before this login, so no HUD was ever built; the client is already ready
+            queueOpen(player, player.getPlayerRef(), 0);
+            return;
+        }
         if (tracked != null) {
-            tracked.visible = true;
             huds.put(id, tracked);
-            MultipleHUD.getInstance().setCustomHud(player, player.getPlayerRef(), "BetterHUD", tracked.hud);
-            ensureThreadSafeMultipleHud(player);
-            System.out.println("[BetterHUD] HUD shown for " + player.getDisplayName());
+            tracked.shard.executor.execute(() -> reshow(tracked, player, id));
         }
     }
 
-    private void refreshHud(TrackedHud tracked, long now) {
-        if (tracked == null || !tracked.visible) {
+    /**
+     * Brings a hidden HUD back on its shard. Change events were dropped while it was hidden, so
+     * every section is recaptured from a full rescan before the rebuild sends them.
+     */
+    private void reshow(TrackedHud tracked, Player player, UUID id) {
+        // Hidden again or disconnected before this ran
+        if (huds.get(id) != tracked || player.wasRemoved()) {
             return;
         }
-        Player player = tracked.player;
+        wake(tracked);
+        tracked.hud.prime(player, tracked.containers, tracked.states);
+        publishToTeam(tracked, HudSections.mask());
+        tracked.visible = true;
+        MultipleHUD.getInstance().setCustomHud(player, player.getPlayerRef(), "BetterHUD", tracked.hud);
+        ensureThreadSafeMultipleHud(player);
+        System.out.println("[BetterHUD] HUD shown for " + player.getDisplayName());
+    }
+
+    private void refreshSections(TrackedHud tracked, int sections) {
+        if (tracked == null || !tracked.visible || sections == 0) {
+            return;
+        }
+        Player player = tracked.player();
         if (player == null || player.wasRemoved()) {
             return;
         }
 
-        if (now - tracked.lastArmorRefresh >= ARMOR_REFRESH_MS) {
-            refreshArmor(tracked);
-            tracked.lastArmorRefresh = now;
+        long start = System.nanoTime();
+        // Every container counts as changed: the full rescan doubles as a consistency check for
+        // incremental section state, and every due section goes out in one update
+        if (!tracked.hud.refreshSections(player, tracked.containers, tracked.states, sections, HudContainer.ALL)) {
+            tracked.shard.retry(tracked);
         }
+        publishToTeam(tracked, sections);
+        HudMetrics.SWEEP_NANOS.record(System.nanoTime() - start);
+        HudSections.countRefreshes(sections);
+    }
 
-        if (now - tracked.lastArrowsRefresh >= ARROWS_REFRESH_MS) {
-            refreshArrows(tracked);
-            tracked.lastArrowsRefresh = now;
+    /**
+     * Hands the player's new armor and ammo to their teammates' HUDs. The snapshot is published
+     * even when the budget deferred this player's own update.
+     */
+    private static void publishToTeam(TrackedHud tracked, int sections) {
+        if ((sections & TeamSection.sources()) != 0 && tracked.teamMember != null) {
+            HudTeams.publish(tracked.teamMember, tracked.hud.snapshot());
         }
+    }
 
-        if (now - tracked.lastMainRefresh >= MAIN_REFRESH_MS) {
-            refreshMainHand(tracked);
-            tracked.lastMainRefresh = now;
+    /**
+     * Marks the player active while their main-hand item keeps losing durability.
+     *
+     * @return whether the player is currently active
+     */
+    private static boolean trackMainHandWear(TrackedHud tracked, long now) {
+        Player player = tracked.player();
+        if (player == null || player.wasRemoved()) {
+            return false;
         }
+        ItemStack stack = player.getInventory().getItemInHand();
+        String itemId = stack == null || stack.isEmpty() ? null : stack.getItemId();
+        double durability = itemId == null ? 0 : stack.getDurability();
+        if (itemId != null && itemId.equals(tracked.lastMainItem) && durability < tracked.lastMainDurability) {
+            tracked.activeUntil = now + CadenceController.ACTIVE_HOLD_MS;
+        }
+        tracked.lastMainItem = itemId;
+        tracked.lastMainDurability = durability;
+        return now < tracked.activeUntil;
     }
 
-    private void refreshArmor(TrackedHud tracked) {
-        if (tracked == null) return;
-        Player player = tracked.player;
-        if (player == null || player.wasRemoved()) return;
-        tracked.hud.refreshArmor(player, tracked.armor);
+    /**
+     * Ends a suspension. The pending slow probe is pulled in to the active interval, so main-hand
+     * wear is seen again without waiting out {@code idleProbeMs}.
+     */
+    private void wake(TrackedHud tracked) {
+        tracked.idleCycles = 0;
+        if (tracked.suspended) {
+            tracked.suspended = false;
+            tracked.nextMainPoll = System.currentTimeMillis() + cadence.interval(CadenceController.MAIN_POLL);
+        }
     }
 
-    private void refreshArrows(TrackedHud tracked) {
-        if (tracked == null) return;
-        Player player = tracked.player;
-        if (player == null || player.wasRemoved()) return;
-        ItemContainer allItems = player.getInventory().getCombinedEverything();
-        tracked.hud.refreshArrows(player, allItems);
+    private EventRegistration registerListener(ItemContainer container, TrackedHud tracked, HudContainer source) {
+        if (container == null || HudSections.dependents(source) == 0) {
+            return null;
+        }
+        long token = ((long) tracked.handle << 8) | source.ordinal();
+        Shard shard = tracked.shard;
+        int bit = source.bit;
+        return container.registerChangeEvent(ev -> shard.enqueue(tracked, bit, token));
     }
 
-    private void refreshMainHand(TrackedHud tracked) {
-        if (tracked == null) return;
-        Player player = tracked.player;
-        if (player == null || player.wasRemoved()) return;
-        tracked.hud.refreshMainHand(player);
-    }
+    /**
+     * One refresher thread plus the change tokens and dirty HUDs of the players hashed to it.
+     */
+    private final class Shard {
+        final ScheduledExecutorService executor;
+        final Set<TrackedHud> members = ConcurrentHashMap.newKeySet();
+        private final int index;
+        // Change listeners only publish (handle, kind) tokens here; the shard thread does the work
+        private final RefreshTokenQueue tokens = new RefreshTokenQueue(TOKEN_QUEUE_CAPACITY);
+        // Set when tokens were dropped or the ammo rules changed: every member is redrawn from a full rescan
+        private volatile boolean resyncRequested;
+        // HUDs with at least one dirty section, only touched by the shard thread
+        private final List<TrackedHud> pending = new ArrayList<>();
+        private long lastDrainNanos;
+        // Fixed-rate passes and their current tick, only touched by the shard thread
+        private ScheduledFuture<?> drainTask;
+        private ScheduledFuture<?> pollTask;
+        private long drainInterval;
+        private long pollInterval;
+        // Size of pending after the last drain, for the queue depth gauge
+        volatile int queued;
+
+        Shard(int index) {
+            this.index = index;
+            ThreadFactory factory = runnable -> {
+                Thread t = new Thread(runnable, "BetterHUD-Refresher-" + index);
+                t.setDaemon(true);
+                return t;
+            };
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+            // stop() should not wait for the next sweep or reaper pass
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            this.executor = executor;
+        }
 
-    private void refreshHud(BetterHudHud hud, Player player, ItemContainer armor) {
-        if (hud == null || player == null || player.wasRemoved()) {
-            return;
+        void start() {
+            executor.execute(this::schedulePasses);
+            long sweepInterval = cadence.interval(CadenceController.SWEEP);
+            executor.schedule(this::safetySweep, sweepInterval + phase(sweepInterval), TimeUnit.MILLISECONDS);
         }
-        ItemContainer allItems = player.getInventory().getCombinedEverything();
-        hud.refresh(player, armor, allItems);
-    }
 
-    private EventRegistration registerListener(ItemContainer container, TrackedHud tracked, RefreshKind kind) {
-        if (container == null) {
-            return null;
+        /**
+         * Schedules the drain and probe passes, or moves them when their tick changed. Runs on the
+         * shard thread, so a pass is never cancelled halfway and nothing queued is dropped.
+         */
+        void schedulePasses() {
+            // Drain at twice the rate of the shortest coalescing window so a due flush waits at most half of it
+            long drain = Math.max(10L, cadence.shortestWindowFloor() / 2);
+            if (drain != drainInterval) {
+                if (drainTask != null) {
+                    drainTask.cancel(false);
+                }
+                // Stagger each shard so the passes spread across the interval instead of bursting together
+                drainTask = executor.scheduleAtFixedRate(this::drainDirty, phase(drain), drain, TimeUnit.MILLISECONDS);
+                drainInterval = drain;
+                // The gap around the switch is not lag
+                lastDrainNanos = 0;
+            }
+            // Probes tick at the floor; each player is only refreshed once their own interval is due
+            long pollTick = cadence.floor(CadenceController.MAIN_POLL);
+            if (pollTick != pollInterval) {
+                if (pollTask != null) {
+                    pollTask.cancel(false);
+                }
+                pollTask = executor.scheduleAtFixedRate(this::pollMainHands, pollTick + phase(pollTick), pollTick, TimeUnit.MILLISECONDS);
+                pollInterval = pollTick;
+            }
         }
-        return container.registerChangeEvent(ev -> refreshByKind(tracked, kind));
-    }
 
-    private void refreshByKind(TrackedHud tracked, RefreshKind kind) {
-        if (tracked == null || !tracked.visible) {
-            return;
+        void requestResync() {
+            resyncRequested = true;
         }
-        long now = System.currentTimeMillis();
-        switch (kind) {
-            case ARMOR -> {
-                refreshArmor(tracked);
-                tracked.lastArmorRefresh = now;
+
+        private long phase(long interval) {
+            return interval * index / shards.length;
+        }
+
+        /**
+         * Runs on whichever thread mutated the inventory, so it only sets the container's queued
+         * bit and, when that bit was clear, publishes the token: no counters, clocks or allocation.
+         * A container already queued since the last drain is read by that drain anyway.
+         */
+        void enqueue(TrackedHud tracked, int bit, long token) {
+            if ((tracked.queued & bit) != 0 || ((int) TrackedHud.QUEUED.getAndBitwiseOr(tracked, bit) & bit) != 0) {
+                return;
             }
-            case ARROWS -> {
-                refreshArrows(tracked);
-                tracked.lastArrowsRefresh = now;
+            if (!tokens.offer(token)) {
+                // The resync covers this change; later events must be able to queue again
+                TrackedHud.QUEUED.getAndBitwiseAnd(tracked, ~bit);
+                resyncRequested = true;
             }
-            case MAIN_AND_ARROWS -> {
-                refreshMainHand(tracked);
-                refreshArrows(tracked);
-                tracked.lastMainRefresh = now;
-                tracked.lastArrowsRefresh = now;
+        }
+
+        /**
+         * Asks for another attempt at a HUD whose update the budget deferred; safe from any thread.
+         */
+        void retry(TrackedHud tracked) {
+            offer(((long) tracked.handle << 8) | RETRY_KIND);
+        }
+
+        private void offer(long token) {
+            if (!tokens.offer(token)) {
+                resyncRequested = true;
             }
         }
-    }
 
-    private enum RefreshKind {
-        ARMOR,
-        ARROWS,
-        MAIN_AND_ARROWS
-    }
+        /**
+         * Turns queued change tokens into dirty sections, then flushes the HUDs whose coalescing
+         * window has elapsed; younger ones wait for the next drain.
+         */
+        private void drainDirty() {
+            long start = System.nanoTime();
+            if (lastDrainNanos != 0) {
+                cadence.recordLag(start - lastDrainNanos - TimeUnit.MILLISECONDS.toNanos(drainInterval));
+            }
+            lastDrainNanos = start;
+            long now = System.currentTimeMillis();
+            if (resyncRequested) {
+                resyncRequested = false;
+                for (TrackedHud tracked : members) {
+                    markDirty(tracked, HudSections.mask(), HudContainer.ALL, now);
+                }
+            }
+            long token;
+            int listenerEvents = 0;
+            while ((token = tokens.poll()) != RefreshTokenQueue.EMPTY) {
+                int kind = (int) token & 0xFF;
+                if (kind < HudContainer.VALUES.length) {
+                    listenerEvents++;
+                }
+                TrackedHud tracked = handles.get((int) (token >>> 8));
+                if (tracked == null) {
+                    continue;
+                }
+                if (kind == RETRY_KIND) {
+                    // Section state is current; resending every section lets the diff pick what is still unsent
+                    markDirty(tracked, HudSections.mask(), 0, now);
+                } else if (kind == TEAM_KIND) {
+                    // The teammate already built their summary; this player only lays out rows
+                    markDirty(tracked, HudSections.TEAM.bit(), 0, now);
+                } else {
+                    // Only the sections that read this container are redrawn. The bit is cleared
+                    // before the flush reads the container, so a later change queues a new token
+                    HudContainer source = HudContainer.VALUES[kind];
+                    TrackedHud.QUEUED.getAndBitwiseAnd(tracked, ~source.bit);
+                    markDirty(tracked, HudSections.dependents(source), source.bit, now);
+                }
+            }
+            if (listenerEvents != 0) {
+                HudMetrics.LISTENER_EVENTS.add(listenerEvents);
+            }
 
-    /**
-     * MultipleHUD stores its HUDs inside a plain HashMap; swapping it to a ConcurrentHashMap
-     * avoids concurrent modification when other plugins rebuild HUDs on tick threads.
-     */
-    private static void ensureThreadSafeMultipleHud(Player player) {
-        if (player == null) {
-            return;
+            // Pending is ordered by when each HUD became dirty, so when the budget runs out the
+            // longest-waiting players are first in line next time. A deferral does not stop the pass:
+            // later HUDs whose patch turns out empty cost no permit and still finish, and only those
+            // already known to need one wait without being recaptured
+            int kept = 0;
+            boolean budgetLeft = true;
+            for (int i = 0; i < pending.size(); i++) {
+                TrackedHud tracked = pending.get(i);
+                if ((!budgetLeft && tracked.deferred)
+                    || now - tracked.dirtySince < cadence.window(tracked.dirty, now < tracked.activeUntil)) {
+                    pending.set(kept++, tracked);
+                    continue;
+                }
+                try {
+                    tracked.deferred = !flush(tracked);
+                    if (tracked.deferred) {
+                        budgetLeft = false;
+                        pending.set(kept++, tracked);
+                    }
+                } catch (Throwable t) {
+                    HudMetrics.ERRORS_FLUSH.increment();
+                }
+            }
+            pending.subList(kept, pending.size()).clear();
+            queued = kept;
+            long elapsed = System.nanoTime() - start;
+            cadence.recordBusy(elapsed);
+            HudMetrics.DRAIN_NANOS.record(elapsed);
+        }
+
+        private void markDirty(TrackedHud tracked, int sections, int arrowContainers, long now) {
+            if (!tracked.visible) {
+                return;
+            }
+            tracked.pendingEvents++;
+            wake(tracked);
+            if (tracked.dirty == 0) {
+                tracked.dirtySince = now;
+                pending.add(tracked);
+            }
+            tracked.dirty |= sections;
+            tracked.dirtyContainers |= arrowContainers;
+        }
+
+        /**
+         * Main-hand durability drops without a container event, so each player is probed on their
+         * own interval: the floor while active, the load-driven interval otherwise.
+         */
+        private void pollMainHands() {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            for (TrackedHud tracked : members) {
+                if (now < tracked.nextMainPoll || !tracked.visible) {
+                    continue;
+                }
+                try {
+                    probe(tracked, now);
+                } catch (Throwable t) {
+                    HudMetrics.ERRORS_SWEEP.increment();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            cadence.recordBusy(elapsed);
+            HudMetrics.SWEEP_PASS_NANOS.record(elapsed);
         }
-        try {
-            var hudManager = player.getHudManager();
-            if (hudManager == null) return;
-            CustomUIHud current = hudManager.getCustomHud();
 
-            Class<?> multiClass = Class.forName("com.buuz135.mhud.MultipleCustomUIHud");
-            if (!multiClass.isInstance(current)) {
+        /**
+         * Redraws the sections whose fingerprint moved since the last probe. A player whose
+         * fingerprints hold still for {@code idleCycles} probes is suspended: only a slow probe
+         * every {@code idleProbeMs} or a container event wakes them.
+         */
+        private void probe(TrackedHud tracked, long now) {
+            Player player = tracked.player();
+            if (player == null || player.wasRemoved()) {
                 return;
             }
+            HudSection<?, ?>[] sections = HudSections.all();
+            int changed = 0;
+            for (int i = 0; i < sections.length; i++) {
+                if (!sections[i].probed()) {
+                    continue;
+                }
+                long fingerprint = sections[i].fingerprint(player, tracked.containers);
+                if (fingerprint != tracked.fingerprints[i]) {
+                    tracked.fingerprints[i] = fingerprint;
+                    changed |= sections[i].bit();
+                }
+            }
 
-            var field = multiClass.getDeclaredField("customHuds");
-            field.setAccessible(true);
-            Object existing = field.get(current);
-            if (existing instanceof java.util.concurrent.ConcurrentHashMap) {
+            if (changed == 0) {
+                HudConfig current = config;
+                if (!tracked.suspended && ++tracked.idleCycles >= current.idleCycles) {
+                    tracked.suspended = true;
+                }
+                tracked.nextMainPoll = now + (tracked.suspended ? current.idleProbeMs : cadence.interval(CadenceController.MAIN_POLL));
                 return;
             }
-            Map<String, CustomUIHud> safe = new java.util.concurrent.ConcurrentHashMap<>();
-            if (existing instanceof Map<?, ?> map) {
-                for (Map.Entry<?, ?> entry : map.entrySet()) {
-                    if (entry.getKey() instanceof String key && entry.getValue() instanceof CustomUIHud value) {
-                        safe.put(key, value);
-                    }
+            wake(tracked);
+            boolean active = trackMainHandWear(tracked, now);
+            tracked.nextMainPoll = now + (active
+                ? cadence.floor(CadenceController.MAIN_POLL)
+                : cadence.interval(CadenceController.MAIN_POLL));
+            refreshSections(tracked, changed);
+        }
+
+        /**
+         * Safety net for lost or missing events; reschedules itself so its interval follows the
+         * cadence. Suspended players are swept too: ammo and team rows are driven by events, and
+         * the probe, which only fingerprints armor and the main hand, would not catch a lost one.
+         */
+        private void safetySweep() {
+            long start = System.nanoTime();
+            for (TrackedHud tracked : members) {
+                try {
+                    refreshSections(tracked, HudSections.mask());
+                } catch (Throwable t) {
+                    HudMetrics.ERRORS_SWEEP.increment();
                 }
             }
-            field.set(current, safe);
-        } catch (Throwable ignored) {
-            // If reflection fails, fall back to default behavior.
+            long elapsed = System.nanoTime() - start;
+            cadence.recordBusy(elapsed);
+            HudMetrics.SWEEP_PASS_NANOS.record(elapsed);
+            executor.schedule(this::safetySweep, cadence.interval(CadenceController.SWEEP), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void ensureThreadSafeMultipleHud(Player player) {
+        if (player == null) {
+            return;
+        }
+        HudEvents.MultipleHudPatch event = new HudEvents.MultipleHudPatch();
+        event.begin();
+        String outcome = MultipleHudPatcher.patch(player);
+        if (event.shouldCommit()) {
+            event.player = player.getDisplayName();
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
+    private static final class PendingOpen {
+        final Player player;
+        final PlayerRef playerRef;
+        final long readyNanos;
+        final long readyAt;
+        volatile boolean cancelled;
+
+        PendingOpen(Player player, PlayerRef playerRef, long readyNanos, long readyAt) {
+            this.player = player;
+            this.playerRef = playerRef;
+            this.readyNanos = readyNanos;
+            this.readyAt = readyAt;
         }
     }
 
     private static final class TrackedHud {
+        static final VarHandle QUEUED;
+
+        static {
+            try {
+                QUEUED = MethodHandles.lookup().findVarHandle(TrackedHud.class, "queued", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
         final BetterHudHud hud;
         final List<EventRegistration> listeners;
-        final ItemContainer armor;
-        final Player player;
+        // By HudContainer ordinal
+        final ItemContainer[] containers;
+        // Per-section state by section index; shard-confined, like the coalescing state below
+        final Object[] states;
+        // Weak so an entry whose disconnect was missed does not pin the player until the reaper runs
+        private final WeakReference<Player> player;
+        final int handle;
+        final Shard shard;
+        // Set once at open, before any teammate can be told about this HUD
+        HudTeams.Member teamMember;
+        Runnable teamViewer;
+        // HudContainer bits with a change token in the shard's queue; set by listeners, cleared by the drain
+        volatile int queued;
+        // Coalescing state, only touched by the shard thread
+        int dirty = 0;
+        int dirtyContainers = 0;
+        int pendingEvents = 0;
+        long dirtySince = 0L;
+        // Last flush was held back by the update budget, so its patch is known to be non-empty
+        boolean deferred;
+        // Cadence state, only touched by the shard thread
+        long nextMainPoll = 0L;
+        long activeUntil = 0L;
+        String lastMainItem;
+        double lastMainDurability;
+        // Idle detection, only written by the shard thread; suspended is volatile for the gauge
+        final long[] fingerprints = new long[HudSections.all().length];
+        int idleCycles;
+        volatile boolean suspended;
         volatile boolean visible = true;
-        volatile long lastArmorRefresh = 0L;
-        volatile long lastArrowsRefresh = 0L;
-        volatile long lastMainRefresh = 0L;
 
-        TrackedHud(BetterHudHud hud, List<EventRegistration> listeners, ItemContainer armor, Player player) {
+        TrackedHud(int handle, Shard shard, BetterHudHud hud, List<EventRegistration> listeners, ItemContainer[] containers, Object[] states, Player player) {
+            this.handle = handle;
+            this.shard = shard;
             this.hud = hud;
             this.listeners = listeners;
-            this.armor = armor;
-            this.player = player;
+            this.containers = containers;
+            this.states = states;
+            this.player = new WeakReference<>(player);
         }
 
-        void close() {
+        Player player() {
+            return player.get();
+        }
+
+        /**
+         * Whether the player behind this HUD is gone, collected or removed from the world.
+         */
+        boolean stale() {
+            Player current = player.get();
+            return current == null || current.wasRemoved();
+        }
+
+        void unregisterListeners() {
             if (listeners == null) {
                 return;
             }
@@ -308,10 +981,27 @@ final class BetterHudService {
                     listener.unregister();
                 }
             }
-            if (player != null) {
+        }
+
+        void close() {
+            if (listeners == null) {
+                return;
+            }
+            HudEvents.HudLifecycle event = new HudEvents.HudLifecycle();
+            event.begin();
+            unregisterListeners();
+            Player player = player();
+            // A removed player has no HUD manager left to update
+            if (player != null && !player.wasRemoved()) {
                 ensureThreadSafeMultipleHud(player);
                 MultipleHUD.getInstance().hideCustomHud(player, player.getPlayerRef(), "BetterHUD");
             }
+            if (event.shouldCommit()) {
+                event.player = player == null ? null : player.getDisplayName();
+                event.action = "close";
+                event.succeeded = true;
+                event.commit();
+            }
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.gillodaby.betterhud;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Picks refresh intervals between a per-section floor and ceiling. Intervals stretch towards the
+ * ceiling as the refresher threads get busier, fall behind, or the player count grows, which caps
+ * the plugin's CPU use whatever the population. Players whose main-hand durability is dropping
+ * (combat, mining) are held at the floor.
+ *
+ * <p>Bounds come from {@link HudConfig}, as {@code cadence.<section>=<floorMs>:<ceilingMs>}, and
+ * can be swapped at runtime with {@link #configure(HudConfig)}.
+ */
+final class CadenceController {
+
+    // Coalescing windows for event-driven updates; every HudSection picks one
+    static final int ARMOR = 0;
+    static final int ARROWS = 1;
+    static final int MAIN = 2;
+    // Main-hand durability probe, which has no container event to ride on
+    static final int MAIN_POLL = 3;
+    // Full consistency sweep
+    static final int SWEEP = 4;
+
+    static final String[] NAMES = {"armor", "arrows", "main", "mainPoll", "sweep"};
+    // How long a player stays at the floor after their main-hand durability last dropped
+    static final long ACTIVE_HOLD_MS = 10_000L;
+    // Weight of the newest sample; the rest keeps intervals from flapping between recomputes
+    private static final double SMOOTHING = 0.3;
+
+    private final int shardCount;
+    // Replaced whole by configure and recompute, which hold the lock; shards read it without one
+    private volatile Cadence cadence;
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAccumulator maxLagNanos = new LongAccumulator(Math::max, 0L);
+    private volatile double pressure;
+    private long lastRecomputeNanos = System.nanoTime();
+
+    CadenceController(int shardCount, HudConfig config) {
+        this.shardCount = shardCount;
+        configure(config);
+    }
+
+    /**
+     * Switches to new bounds; current intervals are re-derived from the smoothed pressure right
+     * away, so a lowered ceiling applies without waiting for the next recompute.
+     */
+    synchronized void configure(HudConfig config) {
+        long[] floors = new long[NAMES.length];
+        for (int i = 0; i < floors.length; i++) {
+            floors[i] = config.cadenceBounds[i][0];
+        }
+        cadence = new Cadence(config, floors, intervals(config, pressure));
+    }
+
+    long floor(int section) {
+        return cadence.floors[section];
+    }
+
+    long interval(int section) {
+        return cadence.intervals[section];
+    }
+
+    /**
+     * Coalescing window for a HUD with the given dirty sections: the shortest of their intervals.
+     */
+    long window(int dirtySections, boolean active) {
+        Cadence state = cadence;
+        long[] current = active ? state.floors : state.intervals;
+        HudSection<?, ?>[] sections = HudSections.all();
+        long window = Long.MAX_VALUE;
+        for (int i = 0, remaining = dirtySections; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                window = Math.min(window, current[sections[i].cadence()]);
+            }
+        }
+        return window == Long.MAX_VALUE ? 0L : window;
+    }
+
+    /**
+     * Shortest floor among the cadences sections coalesce on.
+     */
+    long shortestWindowFloor() {
+        long[] current = cadence.floors;
+        long shortest = Long.MAX_VALUE;
+        for (HudSection<?, ?> section : HudSections.all()) {
+            shortest = Math.min(shortest, current[section.cadence()]);
+        }
+        return shortest;
+    }
+
+    double pressure() {
+        return pressure;
+    }
+
+    void recordBusy(long nanos) {
+        busyNanos.add(nanos);
+    }
+
+    void recordLag(long nanos) {
+        if (nanos > 0) {
+            maxLagNanos.accumulate(nanos);
+        }
+    }
+
+    /**
+     * Folds the load seen since the last call into the pressure and derives new intervals.
+     * Must be called from a single thread.
+     */
+    synchronized void recompute(int players) {
+        long now = System.nanoTime();
+        long elapsed = Math.max(1L, now - lastRecomputeNanos);
+        lastRecomputeNanos = now;
+        double utilization = busyNanos.sumThenReset() / (double) (elapsed * shardCount);
+        Cadence state = cadence;
+        HudConfig current = state.config;
+        double lag = maxLagNanos.getThenReset() / (double) TimeUnit.MILLISECONDS.toNanos(current.lagLimitMs);
+        double population = players / (double) current.playerScale;
+        double sample = Math.min(1.0, Math.max(utilization / current.cpuBudget, Math.max(lag, population)));
+        double smoothed = pressure + SMOOTHING * (sample - pressure);
+        pressure = smoothed;
+        cadence = new Cadence(current, state.floors, intervals(current, smoothed));
+    }
+
+    private static long[] intervals(HudConfig config, double pressure) {
+        long[] next = new long[NAMES.length];
+        for (int i = 0; i < next.length; i++) {
+            long floor = config.cadenceBounds[i][0];
+            long ceiling = config.cadenceBounds[i][1];
+            next[i] = floor + Math.round((ceiling - floor) * pressure);
+        }
+        return next;
+    }
+
+    /**
+     * Bounds, the floors derived from them and the intervals in force, published together so a
+     * reader never mixes a new config with old intervals. The CPU budget, lag limit and player
+     * scale in config are where every interval reaches its ceiling.
+     */
+    private static final class Cadence {
+        final HudConfig config;
+        final long[] floors;
+        final long[] intervals;
+
+        Cadence(HudConfig config, long[] floors, long[] intervals) {
+            this.config = config;
+            this.floors = floors;
+            this.intervals = intervals;
+        }
+    }
+}
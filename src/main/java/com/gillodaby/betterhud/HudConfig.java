@@ -0,0 +1,192 @@
+package com.gillodaby.betterhud;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Tuning knobs, read from {@code config.properties} in the plugin's data directory. A key missing
+ * from the file falls back to the matching {@code -Dbetterhud.<key>} system property, then to the
+ * built-in default. Instances are immutable; a reload builds a new one and the service swaps it in.
+ *
+ * <p>Every key takes effect on reload. The refresher thread count is not one of them: it only
+ * comes from {@code -Dbetterhud.shards}, read once at startup.
+ */
+final class HudConfig {
+
+    static final String FILE_NAME = "config.properties";
+
+    // Resolved values by key, kept for diffing reloads and for the reload report
+    private final Map<String, String> values = new TreeMap<>();
+
+    final long coalesceWindowMs;
+    // Per CadenceController section: {floorMs, ceilingMs}
+    final long[][] cadenceBounds = new long[CadenceController.NAMES.length][];
+    final double cpuBudget;
+    final long lagLimitMs;
+    final int playerScale;
+    final long openDelayMs;
+    final long openJitterMs;
+    final int openRate;
+    final int idleCycles;
+    final long idleProbeMs;
+    final long reapIntervalMs;
+    final int updateBudget;
+    final long updateBudgetWindowMs;
+    final List<String> ammoTokens;
+
+    private HudConfig(Properties file) {
+        coalesceWindowMs = positive(file, "coalesceWindowMs", 50L);
+        // A window configured above the usual ceiling raises it, so floor never exceeds ceiling
+        long windowCeiling = Math.max(coalesceWindowMs, 500L);
+        long[][] defaults = {
+            {coalesceWindowMs, windowCeiling},
+            {coalesceWindowMs, windowCeiling},
+            {coalesceWindowMs, windowCeiling},
+            {500L, 5000L},
+            {30_000L, 120_000L}
+        };
+        for (int i = 0; i < cadenceBounds.length; i++) {
+            String key = "cadence." + CadenceController.NAMES[i];
+            cadenceBounds[i] = parseBounds(key, raw(file, key), defaults[i]);
+            values.put(key, cadenceBounds[i][0] + ":" + cadenceBounds[i][1]);
+        }
+        cpuBudget = positiveDouble(file, "cadence.cpuBudget", 0.25);
+        lagLimitMs = positive(file, "cadence.lagLimitMs", 100L);
+        playerScale = (int) positive(file, "cadence.playerScale", 4000L);
+        openDelayMs = atLeastZero(file, "openDelayMs", 2000L);
+        openJitterMs = atLeastZero(file, "openJitterMs", 1000L);
+        openRate = (int) positive(file, "openRate", 40L);
+        idleCycles = (int) positive(file, "idleCycles", 5L);
+        idleProbeMs = positive(file, "idleProbeMs", 10_000L);
+        reapIntervalMs = atLeastZero(file, "reapIntervalMs", 60_000L);
+        updateBudget = (int) atLeastZero(file, "updateBudget", 400L);
+        updateBudgetWindowMs = positive(file, "updateBudgetWindowMs", 50L);
+        List<String> tokens = new ArrayList<>();
+        for (String part : raw(file, "ammoTokens", "weapon_arrow").split(",")) {
+            if (!part.isBlank()) {
+                tokens.add(part.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        ammoTokens = List.copyOf(tokens);
+        values.put("ammoTokens", String.join(",", ammoTokens));
+    }
+
+    /**
+     * System properties and defaults only; used by the benchmarks and load harness.
+     */
+    static HudConfig defaults() {
+        return new HudConfig(new Properties());
+    }
+
+    /**
+     * Reads the file, or falls back to {@link #defaults()} when it does not exist.
+     *
+     * @throws IOException when the file exists but cannot be read; callers keep their current config
+     */
+    static HudConfig load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (NoSuchFileException e) {
+            // Nothing written yet; system properties and defaults apply
+        }
+        return new HudConfig(properties);
+    }
+
+    /**
+     * Keys whose resolved value differs from {@code previous}, with the new value.
+     */
+    List<String> changesFrom(HudConfig previous) {
+        List<String> changes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (!entry.getValue().equals(previous.values.get(entry.getKey()))) {
+                changes.add(entry.getKey() + "=" + entry.getValue());
+            }
+        }
+        return changes;
+    }
+
+    private static String raw(Properties file, String key, String fallback) {
+        String value = raw(file, key);
+        return value == null ? fallback : value;
+    }
+
+    private static String raw(Properties file, String key) {
+        String value = file.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getProperty("betterhud." + key);
+        }
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private long positive(Properties file, String key, long fallback) {
+        return number(file, key, fallback, 1L);
+    }
+
+    private long atLeastZero(Properties file, String key, long fallback) {
+        return number(file, key, fallback, 0L);
+    }
+
+    private long number(Properties file, String key, long fallback, long min) {
+        long value = fallback;
+        String raw = raw(file, key);
+        if (raw != null) {
+            try {
+                value = Long.parseLong(raw);
+            } catch (NumberFormatException e) {
+                value = min - 1;
+            }
+            if (value < min) {
+                System.out.println("[BetterHUD] Ignoring invalid " + key + " '" + raw + "', using " + fallback);
+                value = fallback;
+            }
+        }
+        values.put(key, Long.toString(value));
+        return value;
+    }
+
+    private double positiveDouble(Properties file, String key, double fallback) {
+        double value = fallback;
+        String raw = raw(file, key);
+        if (raw != null) {
+            try {
+                value = Double.parseDouble(raw);
+            } catch (NumberFormatException e) {
+                value = 0;
+            }
+            if (!(value > 0)) {
+                System.out.println("[BetterHUD] Ignoring invalid " + key + " '" + raw + "', using " + fallback);
+                value = fallback;
+            }
+        }
+        values.put(key, Double.toString(value));
+        return value;
+    }
+
+    private static long[] parseBounds(String key, String raw, long[] defaults) {
+        if (raw == null) {
+            return defaults;
+        }
+        String[] parts = raw.split(":");
+        try {
+            long floor = Long.parseLong(parts[0].trim());
+            long ceiling = parts.length > 1 ? Long.parseLong(parts[1].trim()) : floor;
+            if (floor > 0 && ceiling >= floor) {
+                return new long[] {floor, ceiling};
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        System.out.println("[BetterHUD] Ignoring invalid " + key + " '" + raw + "', expected <floorMs>:<ceilingMs>");
+        return defaults;
+    }
+}
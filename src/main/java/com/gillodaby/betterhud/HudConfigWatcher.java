@@ -0,0 +1,118 @@
+package com.gillodaby.betterhud;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+
+/**
+ * Reloads {@link HudConfig} when its file changes on disk, and on {@code /betterhud reload}.
+ * The watch thread blocks on a {@link WatchService}, so it costs nothing between edits.
+ */
+final class HudConfigWatcher {
+
+    // Editors often save in several writes; wait for them to settle before reading
+    private static final long SETTLE_MS = 250;
+
+    private final Path file;
+    private final BetterHudService service;
+    private WatchService watchService;
+    private Thread thread;
+
+    HudConfigWatcher(Path file, BetterHudService service) {
+        this.file = file;
+        this.service = service;
+    }
+
+    void start() {
+        try {
+            Files.createDirectories(file.getParent());
+            watchService = file.getFileSystem().newWatchService();
+            // Watch the directory: editors that replace the file would detach a watch on the file itself
+            file.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("[BetterHUD] Not watching " + file + ", use /betterhud reload after editing it: " + e.getMessage());
+            return;
+        }
+        thread = new Thread(this::watch, "BetterHUD-Config");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Reads the file and hands it to the service. A file that cannot be read leaves the current
+     * settings in place.
+     *
+     * @return a one-line outcome for the log or the command sender
+     */
+    synchronized String reload() {
+        HudConfig next;
+        try {
+            next = HudConfig.load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            return "Failed to read " + file.getFileName() + ", keeping the current settings: " + e.getMessage();
+        }
+        List<String> changes = service.applyConfig(next);
+        return changes.isEmpty()
+            ? "Configuration unchanged."
+            : "Configuration reloaded: " + String.join(", ", changes);
+    }
+
+    private void watch() {
+        WatchService watcher = watchService;
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean relevant = relevant(key);
+                if (!key.reset()) {
+                    System.out.println("[BetterHUD] Stopped watching " + file + ", use /betterhud reload after editing it");
+                    return;
+                }
+                if (!relevant) {
+                    continue;
+                }
+                Thread.sleep(SETTLE_MS);
+                // Events raised by the same save are covered by this reload
+                while ((key = watcher.poll()) != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                System.out.println("[BetterHUD] " + reload());
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Plugin shutting down
+        }
+    }
+
+    private boolean relevant(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                relevant = true;
+            }
+        }
+        return relevant;
+    }
+}
@@ -0,0 +1,46 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Inventory containers a {@link HudSection} can depend on. Each gets at most one change listener
+ * per player, however many sections read it.
+ */
+enum HudContainer {
+    ARMOR,
+    HOTBAR,
+    STORAGE,
+    BACKPACK,
+    UTILITY,
+    TOOLS;
+
+    static final HudContainer[] VALUES = values();
+    static final int ALL = (1 << VALUES.length) - 1;
+
+    final int bit = 1 << ordinal();
+
+    /**
+     * The player's containers indexed by ordinal; entries may be null.
+     */
+    static ItemContainer[] resolve(Player player) {
+        Inventory inventory = player.getInventory();
+        return new ItemContainer[] {
+            inventory.getArmor(),
+            inventory.getHotbar(),
+            inventory.getStorage(),
+            inventory.getBackpack(),
+            inventory.getUtility(),
+            inventory.getTools()
+        };
+    }
+
+    static int mask(HudContainer... containers) {
+        int mask = 0;
+        for (HudContainer container : containers) {
+            mask |= container.bit;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,93 @@
+package com.gillodaby.betterhud;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for BetterHUD work, so HUD refreshes show up by name next to tick
+ * stalls in a recording. Callers fill fields only after {@code shouldCommit()}, which keeps the
+ * cost to an allocation the JIT removes when the event is disabled or no recording is running.
+ * Individual events can be toggled with JFR settings, e.g. {@code betterhud.SectionRefresh#enabled=false}.
+ */
+final class HudEvents {
+
+    private HudEvents() {
+    }
+
+    @Name("betterhud.SectionRefresh")
+    @Label("HUD Section Refresh")
+    @Description("Sections written to one player's HUD and the resulting update")
+    @Category({"BetterHUD"})
+    @StackTrace(false)
+    static final class SectionRefresh extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Sections")
+        String sections;
+
+        @Label("Fields Changed")
+        int fieldsChanged;
+
+        @Label("Layout Sent")
+        @Description("Whether the whole .ui document was resent instead of a diff")
+        boolean layout;
+
+        @Label("Deferred")
+        @Description("Whether the update budget was exhausted and the update was dropped for a later retry")
+        boolean deferred;
+    }
+
+    @Name("betterhud.ArrowScan")
+    @Label("Arrow Scan")
+    @Description("Rescan of a player's inventory containers for ammo")
+    @Category({"BetterHUD"})
+    @StackTrace(false)
+    static final class ArrowScan extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Containers")
+        @Description("Number of containers rescanned")
+        int containers;
+
+        @Label("Slots Visited")
+        int slotsVisited;
+
+        @Label("Total")
+        int total;
+    }
+
+    @Name("betterhud.HudLifecycle")
+    @Label("HUD Open/Close")
+    @Category({"BetterHUD"})
+    @StackTrace(false)
+    static final class HudLifecycle extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Action")
+        String action;
+
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+
+    @Name("betterhud.MultipleHudPatch")
+    @Label("MultipleHUD Patch")
+    @Description("Swap of MultipleHUD's HUD map for a thread-safe one")
+    @Category({"BetterHUD"})
+    @StackTrace(false)
+    static final class MultipleHudPatch extends Event {
+        @Label("Player")
+        String player;
+
+        @Label("Outcome")
+        @Description("patched, already-safe, not-multiple, raced, unavailable or failed")
+        String outcome;
+    }
+}
@@ -0,0 +1,267 @@
+package com.gillodaby.betterhud;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide counters, gauges and latency histograms, cheap enough for the refresh and
+ * listener paths (striped {@link LongAdder}s, no locks). Rendered as Prometheus text.
+ */
+final class HudMetrics {
+
+    private static final List<Metric> METRICS = new CopyOnWriteArrayList<>();
+
+    static final Counter LISTENER_EVENTS = counter("betterhud_listener_events_total", "Container change tokens drained; repeats before a drain fold into one");
+    static final Histogram FLUSH_NANOS = histogram("betterhud_refresh_seconds{path=\"flush\"}", "HUD refresh latency by path");
+    static final Histogram SWEEP_NANOS = histogram("betterhud_refresh_seconds{path=\"sweep\"}", null);
+    static final Histogram DRAIN_NANOS = histogram("betterhud_drain_seconds", "Duration of one shard drain pass");
+    static final Histogram SWEEP_PASS_NANOS = histogram("betterhud_sweep_seconds", "Duration of one shard sweep pass");
+    static final Histogram TIME_TO_HUD_NANOS = histogram("betterhud_time_to_hud_seconds", "Time from player ready to HUD shown", Histogram.SLOW_BOUNDS_NANOS);
+    static final Histogram UPDATE_NANOS = histogram("betterhud_update_seconds", "CustomUIHud.update() call latency");
+    static final Counter UPDATES_SENT = counter("betterhud_updates_total{result=\"sent\"}", "HUD updates by outcome");
+    static final Counter UPDATES_SUPPRESSED = counter("betterhud_updates_total{result=\"suppressed\"}", null);
+    static final Counter UPDATES_DEFERRED = counter("betterhud_updates_total{result=\"deferred\"}", null);
+    static final Counter COALESCED_FLUSHES = counter("betterhud_coalesced_flushes_total", "Coalesced flushes of change events");
+    static final Counter COALESCED_EVENTS = counter("betterhud_coalesced_events_total", "Change events absorbed by coalesced flushes");
+    static final LongAccumulator MAX_EVENTS_PER_FLUSH = new LongAccumulator(Math::max, 0L);
+    static final Counter REAPED = counter("betterhud_reaped_total", "Stale HUDs and pending opens closed by the reaper");
+    static final Counter ERRORS_OPEN = counter("betterhud_errors_total{site=\"open\"}", "Exceptions caught and swallowed, by site");
+    static final Counter ERRORS_FLUSH = counter("betterhud_errors_total{site=\"flush\"}", null);
+    static final Counter ERRORS_SWEEP = counter("betterhud_errors_total{site=\"sweep\"}", null);
+    static final Counter ERRORS_MULTIPLE_HUD = counter("betterhud_errors_total{site=\"multiplehud\"}", null);
+
+    static {
+        gauge("betterhud_coalesced_events_max", "Most change events absorbed by a single flush", MAX_EVENTS_PER_FLUSH::get);
+    }
+
+    private HudMetrics() {
+    }
+
+    static Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        METRICS.add(counter);
+        return counter;
+    }
+
+    static Histogram histogram(String name, String help) {
+        return histogram(name, help, Histogram.FAST_BOUNDS_NANOS);
+    }
+
+    static Histogram histogram(String name, String help, long[] boundsNanos) {
+        Histogram histogram = new Histogram(name, help, boundsNanos);
+        METRICS.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Registers a value read at render time, replacing any earlier gauge of the same name.
+     */
+    static void gauge(String name, String help, LongSupplier value) {
+        METRICS.removeIf(metric -> metric instanceof Gauge && metric.name.equals(name));
+        METRICS.add(new Gauge(name, help, value));
+    }
+
+    static String renderPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Metric metric : METRICS) {
+            metric.render(out);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Short human-readable summary for the stats command.
+     */
+    static List<String> summary() {
+        List<String> lines = new ArrayList<>();
+        for (Metric metric : METRICS) {
+            metric.summarize(lines);
+        }
+        return lines;
+    }
+
+    private abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        String family() {
+            int brace = name.indexOf('{');
+            return brace < 0 ? name : name.substring(0, brace);
+        }
+
+        void header(StringBuilder out, String type) {
+            if (help != null) {
+                out.append("# HELP ").append(family()).append(' ').append(help).append('\n');
+                out.append("# TYPE ").append(family()).append(' ').append(type).append('\n');
+            }
+        }
+
+        abstract void render(StringBuilder out);
+
+        abstract void summarize(List<String> lines);
+    }
+
+    static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name, String help) {
+            super(name, help);
+        }
+
+        void increment() {
+            value.increment();
+        }
+
+        void add(long amount) {
+            value.add(amount);
+        }
+
+        long sum() {
+            return value.sum();
+        }
+
+        @Override
+        void render(StringBuilder out) {
+            header(out, "counter");
+            out.append(name).append(' ').append(value.sum()).append('\n');
+        }
+
+        @Override
+        void summarize(List<String> lines) {
+            long sum = value.sum();
+            if (sum != 0) {
+                lines.add(name + " = " + sum);
+            }
+        }
+    }
+
+    static final class Gauge extends Metric {
+        private final LongSupplier value;
+
+        Gauge(String name, String help, LongSupplier value) {
+            super(name, help);
+            this.value = value;
+        }
+
+        @Override
+        void render(StringBuilder out) {
+            header(out, "gauge");
+            out.append(name).append(' ').append(value.getAsLong()).append('\n');
+        }
+
+        @Override
+        void summarize(List<String> lines) {
+            lines.add(name + " = " + value.getAsLong());
+        }
+    }
+
+    /**
+     * Fixed buckets; values are recorded in nanoseconds and exported in seconds.
+     */
+    static final class Histogram extends Metric {
+        // 1 us to 1 s, for work on the refresh paths
+        static final long[] FAST_BOUNDS_NANOS = {
+            1_000L, 5_000L, 10_000L, 50_000L, 100_000L, 500_000L,
+            1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L, 100_000_000L, 500_000_000L, 1_000_000_000L
+        };
+        // 100 ms to 1 min, for waits measured in seconds
+        static final long[] SLOW_BOUNDS_NANOS = {
+            100_000_000L, 500_000_000L, 1_000_000_000L, 2_000_000_000L, 3_000_000_000L, 5_000_000_000L,
+            10_000_000_000L, 20_000_000_000L, 30_000_000_000L, 60_000_000_000L
+        };
+
+        private final long[] boundsNanos;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram(String name, String help, long[] boundsNanos) {
+            super(name, help);
+            this.boundsNanos = boundsNanos;
+            this.buckets = new LongAdder[boundsNanos.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            int i = 0;
+            while (i < boundsNanos.length && nanos > boundsNanos[i]) {
+                i++;
+            }
+            buckets[i].increment();
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        /**
+         * Upper bound of the bucket holding the given quantile, in nanoseconds.
+         */
+        long quantileUpperBound(double quantile) {
+            long total = count.sum();
+            if (total == 0) {
+                return 0L;
+            }
+            long target = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < boundsNanos.length; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target) {
+                    return boundsNanos[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        void render(StringBuilder out) {
+            header(out, "histogram");
+            String family = family();
+            String labels = name.length() > family.length() ? name.substring(family.length() + 1, name.length() - 1) + "," : "";
+            long cumulative = 0;
+            for (int i = 0; i < boundsNanos.length; i++) {
+                cumulative += buckets[i].sum();
+                out.append(family).append("_bucket{").append(labels).append("le=\"")
+                    .append(seconds(boundsNanos[i])).append("\"} ").append(cumulative).append('\n');
+            }
+            cumulative += buckets[boundsNanos.length].sum();
+            out.append(family).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+            String suffix = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+            out.append(family).append("_sum").append(suffix).append(' ').append(seconds(sumNanos.sum())).append('\n');
+            out.append(family).append("_count").append(suffix).append(' ').append(cumulative).append('\n');
+        }
+
+        @Override
+        void summarize(List<String> lines) {
+            long total = count.sum();
+            if (total == 0) {
+                return;
+            }
+            lines.add(String.format(Locale.ROOT, "%s n=%d avg=%.1fus p50<=%s p99<=%s",
+                name, total, sumNanos.sum() / 1000.0 / total,
+                micros(quantileUpperBound(0.50)), micros(quantileUpperBound(0.99))));
+        }
+
+        private static String seconds(long nanos) {
+            return Double.toString(nanos / 1e9);
+        }
+
+        private static String micros(long nanos) {
+            return nanos == Long.MAX_VALUE ? "inf" : (nanos / 1000) + "us";
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes HUD values into a builder, skipping any selector whose last sent value is unchanged.
+ */
+final class HudPatch {
+
+    private static final Object NULL = new Object();
+
+    private final UICommandBuilder builder;
+    private final Map<String, Object> sent;
+    private final boolean full;
+    private int changes;
+    // Values the changed selectors held before this patch, so a patch that is never sent can be undone
+    private String[] changedSelectors;
+    private Object[] previousValues;
+
+    HudPatch(UICommandBuilder builder, Map<String, Object> sent, boolean full) {
+        this.builder = builder;
+        this.sent = sent;
+        this.full = full;
+    }
+
+    void set(String selector, String value) {
+        if (record(selector, value)) {
+            builder.set(selector, value);
+        }
+    }
+
+    void set(String selector, boolean value) {
+        if (record(selector, value)) {
+            builder.set(selector, value);
+        }
+    }
+
+    void setNull(String selector) {
+        if (record(selector, NULL)) {
+            builder.setNull(selector);
+        }
+    }
+
+    /**
+     * Sets a string, or clears the selector when there is none, e.g. an icon for an empty slot.
+     */
+    void setOrNull(String selector, String value) {
+        if (value == null) {
+            setNull(selector);
+        } else {
+            set(selector, value);
+        }
+    }
+
+    boolean isEmpty() {
+        return changes == 0;
+    }
+
+    int changes() {
+        return changes;
+    }
+
+    UICommandBuilder builder() {
+        return builder;
+    }
+
+    /**
+     * Restores the last-sent values this patch overwrote, for a patch that was dropped instead of sent.
+     */
+    void revert() {
+        for (int i = changes - 1; i >= 0; i--) {
+            Object previous = previousValues[i];
+            if (previous == null) {
+                sent.remove(changedSelectors[i]);
+            } else {
+                sent.put(changedSelectors[i], previous);
+            }
+        }
+        changes = 0;
+    }
+
+    private boolean record(String selector, Object value) {
+        Object previous = sent.put(selector, value);
+        if (!full && Objects.equals(previous, value)) {
+            return false;
+        }
+        if (changedSelectors == null) {
+            changedSelectors = new String[16];
+            previousValues = new Object[16];
+        } else if (changes == changedSelectors.length) {
+            changedSelectors = Arrays.copyOf(changedSelectors, changes * 2);
+            previousValues = Arrays.copyOf(previousValues, changes * 2);
+        }
+        changedSelectors[changes] = selector;
+        previousValues[changes] = previous;
+        changes++;
+        return true;
+    }
+}
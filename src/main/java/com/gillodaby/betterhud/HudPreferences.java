@@ -0,0 +1,161 @@
+package com.gillodaby.betterhud;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-player HUD preferences, held entirely in memory and written behind to a small binary file.
+ * Reads and updates never touch the disk; a background thread rewrites the file at most once per
+ * {@link #WRITE_DELAY_MS} when something changed.
+ *
+ * <p>File layout: magic, version, entry count, then per entry the UUID bits and a flags int.
+ * Players with default preferences are not stored.
+ */
+final class HudPreferences {
+
+    static final int HIDDEN = 1;
+
+    private static final int MAGIC = 0x42485544; // "BHUD"
+    private static final int VERSION = 1;
+    private static final long WRITE_DELAY_MS = 2000;
+    private static final long STOP_WAIT_MS = 5000;
+
+    private final Path file;
+    private final Map<UUID, Integer> flags = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private ScheduledExecutorService writer;
+
+    private HudPreferences(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Preferences that live only as long as the process; used when there is no data directory.
+     */
+    static HudPreferences inMemory() {
+        return new HudPreferences(null);
+    }
+
+    /**
+     * Loads the whole file up front so lookups on join are plain map reads.
+     */
+    static HudPreferences load(Path file) {
+        HudPreferences preferences = new HudPreferences(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.out.println("[BetterHUD] Ignoring unrecognised preferences file " + file);
+                return preferences;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                int value = in.readInt();
+                if (value != 0) {
+                    preferences.flags.put(id, value);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First start; nothing stored yet
+        } catch (EOFException e) {
+            System.out.println("[BetterHUD] Preferences file " + file + " is truncated, kept " + preferences.flags.size() + " entries");
+        } catch (IOException e) {
+            System.out.println("[BetterHUD] Failed to load preferences: " + e.getMessage());
+        }
+        return preferences;
+    }
+
+    void start() {
+        if (file == null) {
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BetterHUD-Preferences");
+            t.setDaemon(true);
+            return t;
+        });
+        writer.scheduleWithFixedDelay(this::writeIfDirty, WRITE_DELAY_MS, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Lets a write in progress finish, then saves any pending change on the calling thread. The
+     * writer is only interrupted if it is still busy after {@link #STOP_WAIT_MS}.
+     */
+    void stop() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                if (!writer.awaitTermination(STOP_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    writer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                writer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
+        writeIfDirty();
+    }
+
+    boolean isHidden(UUID id) {
+        return (flags.getOrDefault(id, 0) & HIDDEN) != 0;
+    }
+
+    void setHidden(UUID id, boolean hidden) {
+        if (isHidden(id) == hidden) {
+            return;
+        }
+        flags.compute(id, (key, value) -> {
+            int current = value == null ? 0 : value;
+            int next = hidden ? current | HIDDEN : current & ~HIDDEN;
+            return next == 0 ? null : next;
+        });
+        dirty.set(true);
+    }
+
+    int size() {
+        return flags.size();
+    }
+
+    // Serialised so the final save never shares the temp file with a write that outlived stop()
+    private synchronized void writeIfDirty() {
+        if (file == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            // Copy first so the count always matches the entries written
+            Map<UUID, Integer> copy = Map.copyOf(flags);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<UUID, Integer> entry : copy.entrySet()) {
+                    out.writeLong(entry.getKey().getMostSignificantBits());
+                    out.writeLong(entry.getKey().getLeastSignificantBits());
+                    out.writeInt(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Try again on the next pass
+            dirty.set(true);
+            System.out.println("[BetterHUD] Failed to save preferences: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+import java.util.Objects;
+
+/**
+ * One block of the HUD: the selectors it writes, the containers whose changes can alter it and
+ * the cadence that coalesces those changes. Register instances with {@link HudSections} before
+ * the first HUD opens.
+ *
+ * <p>Captures run on the player's refresher shard and produce immutable values of type
+ * {@code V}, which any thread may then write. Per-player state of type {@code S} stays on the
+ * shard between captures, e.g. for incremental counting.
+ *
+ * @param <S> per-player state, or {@link Void} for stateless sections
+ * @param <V> captured values, never mutated once returned
+ */
+abstract class HudSection<S, V> {
+
+    private final String name;
+    private final int cadence;
+    private final int dependencies;
+    // Assigned by HudSections on registration
+    int index = -1;
+    HudMetrics.Counter refreshes;
+    HudMetrics.Histogram captureNanos;
+
+    /**
+     * @param name     short lower-case name for metrics, JFR and logs
+     * @param cadence  {@link CadenceController} section whose interval coalesces this section's changes
+     * @param depends  containers whose change events should redraw this section
+     */
+    HudSection(String name, int cadence, HudContainer... depends) {
+        this.name = name;
+        this.cadence = cadence;
+        this.dependencies = HudContainer.mask(depends);
+    }
+
+    final String name() {
+        return name;
+    }
+
+    final int cadence() {
+        return cadence;
+    }
+
+    /**
+     * {@link HudContainer} bits this section reads.
+     */
+    final int dependencies() {
+        return dependencies;
+    }
+
+    /**
+     * This section's bit in dirty and refresh masks. Freezes the registry if nothing else has yet,
+     * since the index is only assigned then.
+     *
+     * @throws IllegalStateException if the section was never registered
+     */
+    final int bit() {
+        if (index < 0) {
+            HudSections.all();
+            if (index < 0) {
+                throw new IllegalStateException("Section " + name + " is not registered");
+            }
+        }
+        return 1 << index;
+    }
+
+    /**
+     * Extra .ui document appended after the base layout when it is sent, for sections whose
+     * elements are not part of it; null when they are. It anchors itself, since {@code #HudRoot}
+     * lays its children out in one row.
+     */
+    String layout() {
+        return null;
+    }
+
+    /**
+     * Whether these values show anything from {@link #layout()}. A section with its own document
+     * is neither appended nor written for a player until this first holds, so a HUD that never
+     * shows it never carries its elements or selectors.
+     */
+    boolean needsLayout(V values) {
+        return true;
+    }
+
+    /**
+     * Values shown before the first capture.
+     */
+    abstract V blank();
+
+    /**
+     * Per-player state, created when the HUD opens; null for stateless sections.
+     */
+    S newState(ItemContainer[] containers) {
+        return null;
+    }
+
+    /**
+     * Reads the section's current values. Returning {@code previous} when nothing shown changed
+     * keeps the steady-state refresh allocation-free.
+     *
+     * @param containers the player's containers by {@link HudContainer} ordinal, entries may be null
+     * @param changed    dependencies changed since the last capture, or all of them for a full refresh
+     * @param previous   the values currently published, {@link #blank()} before the first capture
+     */
+    abstract V capture(Player player, ItemContainer[] containers, S state, int changed, V previous);
+
+    abstract void write(V values, HudPatch patch);
+
+    /**
+     * Whether {@link #fingerprint} is worth polling, for inputs that change without a container
+     * event (durability wear).
+     */
+    boolean probed() {
+        return false;
+    }
+
+    /**
+     * Cheap hash of everything the section shows; a different value means it needs redrawing.
+     */
+    long fingerprint(Player player, ItemContainer[] containers) {
+        return 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    final Object captureRaw(Player player, ItemContainer[] containers, Object state, int changed, Object previous) {
+        return capture(player, containers, (S) state, changed & dependencies, (V) previous);
+    }
+
+    @SuppressWarnings("unchecked")
+    final void writeRaw(Object values, HudPatch patch) {
+        write((V) values, patch);
+    }
+
+    @SuppressWarnings("unchecked")
+    final boolean needsLayoutRaw(Object values) {
+        return needsLayout((V) values);
+    }
+
+    /**
+     * Folds the parts of a stack the HUD can show (id, quantity, durability) into a running hash.
+     */
+    static long fingerprint(ItemStack stack, long hash) {
+        if (stack == null || stack.isEmpty()) {
+            return hash * 31L;
+        }
+        hash = hash * 31L + (stack.getItemId() == null ? 0 : stack.getItemId().hashCode());
+        hash = hash * 31L + stack.getQuantity();
+        hash = hash * 31L + Double.hashCode(stack.getDurability());
+        return hash * 31L + Double.hashCode(stack.getMaxDurability());
+    }
+
+    /**
+     * An icon with a caption that can be hidden, the shape shared by the main-hand and ammo sections.
+     */
+    static final class Label {
+        final boolean visible;
+        final String value;
+        final String icon;
+
+        Label(boolean visible, String value, String icon) {
+            this.visible = visible;
+            this.value = value;
+            this.icon = icon;
+        }
+
+        /**
+         * This label if it already shows the same thing, otherwise a new one.
+         */
+        Label with(boolean visible, String value, String icon) {
+            if (this.visible == visible && Objects.equals(this.value, value) && Objects.equals(this.icon, icon)) {
+                return this;
+            }
+            return new Label(visible, value, icon);
+        }
+
+        void write(HudPatch patch, String visibleSelector, String valueSelector, String iconSelector) {
+            patch.set(visibleSelector, visible);
+            patch.set(valueSelector, value);
+            patch.setOrNull(iconSelector, icon);
+        }
+    }
+}
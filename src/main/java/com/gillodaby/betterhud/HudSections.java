@@ -0,0 +1,159 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registry of HUD sections and the router from container changes to the sections that read them.
+ * Sections may be added until the registry is first read, which happens when the first snapshot
+ * is built; from then on section bits, snapshot layout and routing are fixed.
+ */
+final class HudSections {
+
+    static final ArmorSection ARMOR = new ArmorSection();
+    static final ArrowsSection ARROWS = new ArrowsSection();
+    static final MainHandSection MAIN_HAND = new MainHandSection();
+    static final TeamSection TEAM = new TeamSection();
+
+    // Bits are ints, so 32 sections at most
+    private static final int MAX_SECTIONS = Integer.SIZE;
+    private static final List<HudSection<?, ?>> PENDING = new ArrayList<>(List.of(ARMOR, ARROWS, MAIN_HAND, TEAM));
+    // Guarded by the class lock, like PENDING
+    private static boolean frozen;
+    // Racy on purpose: it only decides which captures get timed
+    private static int captureSample;
+
+    private HudSections() {
+    }
+
+    /**
+     * Adds a section after the built-in ones.
+     *
+     * @throws IllegalStateException once the first HUD has been built
+     */
+    static synchronized void register(HudSection<?, ?> section) {
+        if (frozen) {
+            throw new IllegalStateException("HUD sections are fixed once the first HUD is built: " + section.name());
+        }
+        if (PENDING.size() == MAX_SECTIONS) {
+            throw new IllegalStateException("At most " + MAX_SECTIONS + " HUD sections: " + section.name());
+        }
+        if (section.index >= 0 || PENDING.contains(section)) {
+            throw new IllegalArgumentException("HUD section registered twice: " + section.name());
+        }
+        PENDING.add(section);
+    }
+
+    /**
+     * Every section, indexed by {@link HudSection#index}.
+     */
+    static HudSection<?, ?>[] all() {
+        return Frozen.SECTIONS;
+    }
+
+    /**
+     * Bits of every registered section.
+     */
+    static int mask() {
+        return Frozen.MASK;
+    }
+
+    /**
+     * Bits of the sections that bring their own .ui document, appended only once they need it.
+     */
+    static int detached() {
+        return Frozen.DETACHED;
+    }
+
+    /**
+     * Bits of the sections that read the given container; 0 means nobody needs its change events.
+     */
+    static int dependents(HudContainer container) {
+        return Frozen.DEPENDENTS[container.ordinal()];
+    }
+
+    /**
+     * Per-player state for every section, indexed like {@link #all()}.
+     */
+    static Object[] newStates(ItemContainer[] containers) {
+        HudSection<?, ?>[] sections = Frozen.SECTIONS;
+        Object[] states = new Object[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            states[i] = sections[i].newState(containers);
+        }
+        return states;
+    }
+
+    static String names(int sections) {
+        StringBuilder out = new StringBuilder();
+        HudSection<?, ?>[] all = Frozen.SECTIONS;
+        for (int i = 0; i < all.length; i++) {
+            if ((sections & (1 << i)) != 0) {
+                out.append(out.length() == 0 ? "" : ",").append(all[i].name());
+            }
+        }
+        return out.toString();
+    }
+
+    static void countRefreshes(int sections) {
+        HudSection<?, ?>[] all = Frozen.SECTIONS;
+        for (int i = 0, remaining = sections; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                all[i].refreshes.increment();
+            }
+        }
+    }
+
+    /**
+     * Whether this capture should time its sections; one in 16 does.
+     */
+    static boolean sampleCapture() {
+        return (++captureSample & 15) == 0;
+    }
+
+    private static synchronized HudSection<?, ?>[] freeze() {
+        frozen = true;
+        HudSection<?, ?>[] sections = PENDING.toArray(new HudSection<?, ?>[0]);
+        for (int i = 0; i < sections.length; i++) {
+            sections[i].index = i;
+            // Registered together so the family's lines stay adjacent in the Prometheus output
+            sections[i].refreshes = HudMetrics.counter("betterhud_section_refreshes_total{section=\"" + sections[i].name() + "\"}",
+                i == 0 ? "Section refreshes by section" : null);
+        }
+        for (int i = 0; i < sections.length; i++) {
+            sections[i].captureNanos = HudMetrics.histogram("betterhud_section_capture_seconds{section=\"" + sections[i].name() + "\"}",
+                i == 0 ? "Section capture latency by section (sampled 1 in 16)" : null);
+        }
+        return sections;
+    }
+
+    /**
+     * Holder that freezes the registry on first access to the sections.
+     */
+    private static final class Frozen {
+        static final HudSection<?, ?>[] SECTIONS = freeze();
+        static final int MASK;
+        static final int DETACHED;
+        static final int[] DEPENDENTS = new int[HudContainer.VALUES.length];
+
+        static {
+            int mask = 0;
+            int detached = 0;
+            for (HudSection<?, ?> section : SECTIONS) {
+                mask |= section.bit();
+                if (section.layout() != null) {
+                    detached |= section.bit();
+                }
+                for (HudContainer container : HudContainer.VALUES) {
+                    if ((section.dependencies() & container.bit) != 0) {
+                        DEPENDENTS[container.ordinal()] |= section.bit();
+                    }
+                }
+            }
+            MASK = mask;
+            DETACHED = detached;
+        }
+    }
+}
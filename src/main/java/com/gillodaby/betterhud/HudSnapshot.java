@@ -0,0 +1,89 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Immutable, already-formatted HUD values for one player, one entry per registered
+ * {@link HudSection}. Sections are captured from the inventory on the refresher thread, and every
+ * render (partial update or client rebuild) reads one published instance, so it never mixes
+ * values from two refreshes.
+ */
+final class HudSnapshot {
+
+    static final HudSnapshot EMPTY = blank();
+
+    // Only read for diagnostics; the values below are what gets rendered
+    final String playerName;
+    // Indexed by section; never mutated once built
+    private final Object[] values;
+
+    private HudSnapshot(String playerName, Object[] values) {
+        this.playerName = playerName;
+        this.values = values;
+    }
+
+    private static HudSnapshot blank() {
+        HudSection<?, ?>[] sections = HudSections.all();
+        Object[] values = new Object[sections.length];
+        for (int i = 0; i < sections.length; i++) {
+            values[i] = sections[i].blank();
+        }
+        return new HudSnapshot(null, values);
+    }
+
+    /**
+     * Reads the requested sections; the others keep this snapshot's values.
+     *
+     * @param states  per-section player state from {@link HudSections#newStates}
+     * @param changed {@link HudContainer} bits changed since the last capture; each section sees its own
+     */
+    HudSnapshot capture(Player player, ItemContainer[] containers, Object[] states, int sections, int changed) {
+        HudSection<?, ?>[] all = HudSections.all();
+        Object[] next = values.clone();
+        boolean timed = HudSections.sampleCapture();
+        for (int i = 0, remaining = sections; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) == 0) {
+                continue;
+            }
+            if (!timed) {
+                next[i] = all[i].captureRaw(player, containers, states[i], changed, values[i]);
+                continue;
+            }
+            long start = System.nanoTime();
+            next[i] = all[i].captureRaw(player, containers, states[i], changed, values[i]);
+            all[i].captureNanos.record(System.nanoTime() - start);
+        }
+        return new HudSnapshot(player == null ? playerName : player.getDisplayName(), next);
+    }
+
+    /**
+     * Takes the given sections from {@code other} and the rest from this snapshot.
+     */
+    HudSnapshot merge(HudSnapshot other, int sections) {
+        Object[] merged = values.clone();
+        for (int i = 0, remaining = sections; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                merged[i] = other.values[i];
+            }
+        }
+        return new HudSnapshot(other.playerName != null ? other.playerName : playerName, merged);
+    }
+
+    /**
+     * The given section's current values.
+     */
+    @SuppressWarnings("unchecked")
+    <V> V value(HudSection<?, V> section) {
+        return (V) values[section.index];
+    }
+
+    void write(HudPatch patch, int sections) {
+        HudSection<?, ?>[] all = HudSections.all();
+        for (int i = 0, remaining = sections; remaining != 0; i++, remaining >>>= 1) {
+            if ((remaining & 1) != 0) {
+                all[i].writeRaw(values[i], patch);
+            }
+        }
+    }
+}
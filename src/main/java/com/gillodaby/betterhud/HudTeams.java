@@ -0,0 +1,244 @@
+package com.gillodaby.betterhud;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Teams whose members see each other's armor and ammo. Each member's {@link Summary} is built
+ * once, on the member's own shard, when their armor or ammo section produced new values; the
+ * team's viewers are then only told to redraw, and every viewer writes the same already-formatted
+ * strings. A change costs one summary plus one token per teammate, and nothing when no teammate
+ * value moved.
+ *
+ * <p>Team assignments are kept by player id for as long as the assigning plugin leaves them; a
+ * roster only holds players whose HUD is open, so a player who leaves costs nothing but that
+ * entry. Assignments and rosters change under the class lock, a member's summary under its own
+ * lock; reading rosters is lock-free.
+ */
+final class HudTeams {
+
+    static final HudMetrics.Counter SUMMARIES = HudMetrics.counter("betterhud_team_summaries_total",
+        "Teammate summaries rebuilt after an armor or ammo change");
+    static final HudMetrics.Counter FANOUT = HudMetrics.counter("betterhud_team_notifications_total",
+        "Teammate HUDs told to redraw a changed summary");
+
+    private static final Member[] NO_MEMBERS = new Member[0];
+    // Team name by player, whether or not they are online
+    private static final Map<UUID, String> ASSIGNMENTS = new ConcurrentHashMap<>();
+    // Players whose HUD is open
+    private static final Map<UUID, Member> MEMBERS = new ConcurrentHashMap<>();
+    // Guarded by the class lock, like the rosters inside
+    private static final Map<String, Team> TEAMS = new ConcurrentHashMap<>();
+
+    static {
+        HudMetrics.gauge("betterhud_teams", "Teams with at least one open HUD", TEAMS::size);
+        HudMetrics.gauge("betterhud_team_assignments", "Players assigned to a team", ASSIGNMENTS::size);
+    }
+
+    private HudTeams() {
+    }
+
+    /**
+     * Moves the player into the named team, creating it if needed; null or blank leaves their
+     * current team. Both rosters are redrawn.
+     */
+    static synchronized void join(UUID player, String team) {
+        Objects.requireNonNull(player, "player");
+        String name = team == null || team.isBlank() ? null : team.trim();
+        if (name == null) {
+            ASSIGNMENTS.remove(player);
+        } else {
+            ASSIGNMENTS.put(player, name);
+        }
+        Member member = MEMBERS.get(player);
+        if (member != null) {
+            place(member, name);
+        }
+    }
+
+    static String teamOf(UUID player) {
+        return ASSIGNMENTS.get(player);
+    }
+
+    static Member member(UUID player) {
+        return MEMBERS.get(player);
+    }
+
+    /**
+     * Registers the callback that asks the player's shard to redraw their teammate rows, and puts
+     * them on their assigned team's roster.
+     */
+    static synchronized Member subscribe(UUID player, Runnable viewer) {
+        Member member = MEMBERS.computeIfAbsent(player, Member::new);
+        synchronized (member) {
+            member.viewer = viewer;
+        }
+        place(member, ASSIGNMENTS.get(player));
+        return member;
+    }
+
+    /**
+     * Drops the player's HUD from the fan-out and their team's roster; their assignment is kept
+     * for the next time their HUD opens.
+     */
+    static synchronized void unsubscribe(Member member, Runnable viewer) {
+        synchronized (member) {
+            if (member.viewer != viewer) {
+                // A newer HUD of the same player already took over
+                return;
+            }
+            member.viewer = null;
+            member.summary = null;
+        }
+        MEMBERS.remove(member.id, member);
+        place(member, null);
+    }
+
+    /**
+     * A player's HUD published a new snapshot of its armor or ammo. Nothing is stored once the
+     * HUD unsubscribed, so a player who left never comes back as a stale row.
+     */
+    static void publish(Member member, HudSnapshot snapshot) {
+        synchronized (member) {
+            if (member.viewer == null) {
+                return;
+            }
+            Summary current = member.summary;
+            Summary next = Summary.of(snapshot, current);
+            if (next == current) {
+                return;
+            }
+            member.summary = next;
+        }
+        SUMMARIES.increment();
+        Team team = member.team;
+        if (team != null) {
+            team.redraw(member);
+        }
+    }
+
+    /**
+     * Moves a member between rosters, or off every roster for null. Runs under the class lock.
+     */
+    private static void place(Member member, String name) {
+        Team current = member.team;
+        if (current != null && current.name.equals(name)) {
+            return;
+        }
+        if (current != null) {
+            current.remove(member);
+            if (current.members.length == 0) {
+                TEAMS.remove(current.name);
+            }
+            member.team = null;
+            current.redraw(null);
+            // Off every roster: the player's own rows clear too
+            Runnable viewer = member.viewer;
+            if (name == null && viewer != null) {
+                viewer.run();
+            }
+        }
+        if (name != null) {
+            Team next = TEAMS.computeIfAbsent(name, Team::new);
+            next.add(member);
+            member.team = next;
+            next.redraw(null);
+        }
+    }
+
+    static final class Member {
+        final UUID id;
+        // Written under the class lock, read by every shard
+        volatile Team team;
+        // Written under this member's lock, read by every shard; null once the HUD unsubscribed
+        volatile Runnable viewer;
+        // Written by the member's own shard under its lock; null until their HUD first publishes
+        volatile Summary summary;
+
+        Member(UUID id) {
+            this.id = id;
+        }
+    }
+
+    static final class Team {
+        final String name;
+        // Copied on write under the class lock, so viewers iterate it without one
+        volatile Member[] members = NO_MEMBERS;
+
+        Team(String name) {
+            this.name = name;
+        }
+
+        private void add(Member member) {
+            Member[] next = Arrays.copyOf(members, members.length + 1);
+            next[members.length] = member;
+            members = next;
+        }
+
+        private void remove(Member member) {
+            Member[] current = members;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == member) {
+                    Member[] next = new Member[current.length - 1];
+                    System.arraycopy(current, 0, next, 0, i);
+                    System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                    members = next;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Tells every member except {@code source} to redraw their teammate rows.
+         */
+        private void redraw(Member source) {
+            for (Member member : members) {
+                Runnable viewer = member.viewer;
+                if (member != source && viewer != null) {
+                    viewer.run();
+                    FANOUT.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * One member's row as every teammate sees it, formatted once and shared by all of them.
+     */
+    static final class Summary {
+        // Kept to recognise an unchanged snapshot by identity
+        private final String playerName;
+        private final ArmorSection.Pieces armor;
+        private final HudSection.Label arrows;
+        // Name, the four armor slots, then ammo, in HudText.TEAM_FIELD_SELECTORS order
+        final String[] fields;
+
+        private Summary(String playerName, ArmorSection.Pieces armor, HudSection.Label arrows) {
+            this.playerName = playerName;
+            this.armor = armor;
+            this.arrows = arrows;
+            String[] values = new String[2 + armor.values.length];
+            values[0] = playerName == null ? "" : playerName;
+            System.arraycopy(armor.values, 0, values, 1, armor.values.length);
+            values[values.length - 1] = arrows.value;
+            this.fields = values;
+        }
+
+        /**
+         * {@code current} if the snapshot's name, armor and ammo are the ones it was built from.
+         * Sections return their previous values when nothing changed, so identity is enough.
+         */
+        static Summary of(HudSnapshot snapshot, Summary current) {
+            ArmorSection.Pieces armor = snapshot.value(HudSections.ARMOR);
+            HudSection.Label arrows = snapshot.value(HudSections.ARROWS);
+            if (current != null && current.armor == armor && current.arrows == arrows
+                && Objects.equals(current.playerName, snapshot.playerName)) {
+                return current;
+            }
+            return new Summary(snapshot.playerName, armor, arrows);
+        }
+    }
+}
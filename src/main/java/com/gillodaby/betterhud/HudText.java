@@ -0,0 +1,114 @@
+package com.gillodaby.betterhud;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Precomputed selectors and value strings for the HUD hot path. Everything here is immutable
+ * or benignly racy, so it is safe to use from every refresher and listener thread at once.
+ */
+final class HudText {
+
+    static final String[] SLOT_IDS = {"Head", "Chest", "Legs", "Feet"};
+    static final String[] SLOT_VALUE_SELECTORS = selectors("Value.Text");
+    static final String[] SLOT_ICON_SELECTORS = selectors("Icon.ItemId");
+    static final String ARROWS_VISIBLE = "#Arrows.Visible";
+    static final String ARROWS_VALUE = "#ArrowsValue.Text";
+    static final String ARROWS_ICON = "#ArrowsIcon.ItemId";
+    static final String MAIN_VISIBLE = "#MainHand.Visible";
+    static final String MAIN_VALUE = "#MainValue.Text";
+    static final String MAIN_ICON = "#MainIcon.ItemId";
+    // Teammate rows: a name, then the same four armor slots and ammo count as the player's own HUD
+    static final int TEAM_ROWS = 4;
+    static final String TEAM_VISIBLE = "#Team.Visible";
+    static final String[] TEAM_ROW_VISIBLE = teamSelectors(".Visible");
+    static final String[][] TEAM_FIELD_SELECTORS = teamFieldSelectors("Name", "Head", "Chest", "Legs", "Feet", "Arrows");
+
+    static final String INF = "INF";
+    // Armor values get a leading space so the name and value don't touch
+    static final String PADDED_INF = " " + INF;
+
+    private static final String[] PERCENTS = new String[101];
+    private static final String[] PADDED_PERCENTS = new String[101];
+    private static final int COUNT_CACHE_SIZE = 10_000;
+    // Filled lazily; a racing thread at worst builds an equal string twice
+    private static final String[] COUNTS = new String[COUNT_CACHE_SIZE];
+    // Matches the default-locale grouping the old DecimalFormat("###,###") produced
+    private static final char GROUPING = DecimalFormatSymbols.getInstance().getGroupingSeparator();
+
+    static {
+        for (int i = 0; i <= 100; i++) {
+            PERCENTS[i] = (i + "%").intern();
+            PADDED_PERCENTS[i] = (" " + i + "%").intern();
+        }
+    }
+
+    private HudText() {
+    }
+
+    /**
+     * Durability as a whole percentage, or INF for items without durability.
+     */
+    static String durability(double current, double max, boolean padded) {
+        if (max <= 0) {
+            return padded ? PADDED_INF : INF;
+        }
+        double pct = Math.max(0, Math.min(100, (current / max) * 100.0));
+        // rint rounds half to even like the DecimalFormat("0") it replaces
+        int index = (int) Math.rint(pct);
+        return padded ? PADDED_PERCENTS[index] : PERCENTS[index];
+    }
+
+    static String count(int value) {
+        if (value >= 0 && value < COUNT_CACHE_SIZE) {
+            String cached = COUNTS[value];
+            if (cached == null) {
+                cached = group(value);
+                COUNTS[value] = cached;
+            }
+            return cached;
+        }
+        return group(value);
+    }
+
+    private static String group(int value) {
+        String digits = Integer.toString(Math.abs(value));
+        StringBuilder out = new StringBuilder(digits.length() + digits.length() / 3 + 1);
+        if (value < 0) {
+            out.append('-');
+        }
+        int lead = digits.length() % 3;
+        for (int i = 0; i < digits.length(); i++) {
+            if (i > 0 && (i - lead) % 3 == 0) {
+                out.append(GROUPING);
+            }
+            out.append(digits.charAt(i));
+        }
+        return out.toString();
+    }
+
+    private static String[] teamSelectors(String suffix) {
+        String[] selectors = new String[TEAM_ROWS];
+        for (int row = 0; row < TEAM_ROWS; row++) {
+            selectors[row] = ("#Team" + row + suffix).intern();
+        }
+        return selectors;
+    }
+
+    private static String[][] teamFieldSelectors(String... fields) {
+        String[][] selectors = new String[TEAM_ROWS][fields.length];
+        for (int row = 0; row < TEAM_ROWS; row++) {
+            for (int field = 0; field < fields.length; field++) {
+                selectors[row][field] = ("#Team" + row + fields[field] + ".Text").intern();
+            }
+        }
+        return selectors;
+    }
+
+    private static String[] selectors(String suffix) {
+        String[] selectors = new String[SLOT_IDS.length];
+        for (int i = 0; i < SLOT_IDS.length; i++) {
+            selectors[i] = ("#" + SLOT_IDS[i] + suffix).intern();
+        }
+        return selectors;
+    }
+}
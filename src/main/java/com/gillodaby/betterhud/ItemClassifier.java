@@ -0,0 +1,103 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches what BetterHUD needs to know about an item id, so the per-stack checks on the
+ * refresh paths become a single map lookup after the first sighting of each id.
+ */
+final class ItemClassifier {
+
+    static final int AMMO = 1;
+    static final int TOOL = 1 << 1;
+    static final int DURABILITY = 1 << 2;
+
+    // Item ids come from a fixed asset set; the bound only guards against unexpected churn
+    private static final int MAX_ENTRIES = 4096;
+    // Tokens and the cache built from them are swapped together so a result never outlives its rules
+    private static volatile Rules rules = new Rules(parseTokens(System.getProperty("betterhud.ammoTokens", "weapon_arrow")));
+
+    private ItemClassifier() {
+    }
+
+    /**
+     * Replaces the lower-case id fragments that mark an item as ammo and forgets cached results.
+     */
+    static void setAmmoTokens(List<String> tokens) {
+        rules = new Rules(parseTokens(String.join(",", tokens)));
+    }
+
+    static List<String> ammoTokens() {
+        return List.of(rules.ammoTokens);
+    }
+
+    static boolean isAmmo(ItemStack stack) {
+        return (classify(stack) & AMMO) != 0;
+    }
+
+    static int classify(ItemStack stack) {
+        if (stack == null || stack.isEmpty()) {
+            return 0;
+        }
+        String itemId = stack.getItemId();
+        if (itemId == null) {
+            return 0;
+        }
+        Rules current = rules;
+        Integer cached = current.flags.get(itemId);
+        if (cached != null) {
+            return cached;
+        }
+        int flags = compute(current, itemId, stack);
+        if (current.flags.size() < MAX_ENTRIES) {
+            current.flags.putIfAbsent(itemId, flags);
+        }
+        return flags;
+    }
+
+    private static int compute(Rules current, String itemId, ItemStack stack) {
+        int flags = 0;
+        String lower = itemId.toLowerCase(Locale.ROOT);
+        for (String token : current.ammoTokens) {
+            if (lower.contains(token)) {
+                flags |= AMMO;
+                break;
+            }
+        }
+        Item item = stack.getItem();
+        if (item != null && (item.getTool() != null || item.getWeapon() != null)) {
+            flags |= TOOL;
+        }
+        if (stack.getMaxDurability() > 0) {
+            flags |= DURABILITY;
+        }
+        return flags;
+    }
+
+    private static String[] parseTokens(String raw) {
+        List<String> tokens = new ArrayList<>();
+        for (String part : raw.split(",")) {
+            String token = part.trim().toLowerCase(Locale.ROOT);
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static final class Rules {
+        final String[] ammoTokens;
+        final Map<String, Integer> flags = new ConcurrentHashMap<>();
+
+        Rules(String[] ammoTokens) {
+            this.ammoTokens = ammoTokens;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Durability of the tool or weapon in hand. Switching slots touches the hotbar, but wear does
+ * not raise a container event, so the held item is also fingerprinted by the idle probe.
+ */
+final class MainHandSection extends HudSection<Void, HudSection.Label> {
+
+    private static final Label BLANK = new Label(false, "", null);
+
+    MainHandSection() {
+        super("main", CadenceController.MAIN, HudContainer.HOTBAR);
+    }
+
+    @Override
+    Label blank() {
+        return BLANK;
+    }
+
+    @Override
+    Label capture(Player player, ItemContainer[] containers, Void state, int changed, Label previous) {
+        if (player == null) {
+            return BLANK;
+        }
+        ItemStack stack = player.getInventory().getItemInHand();
+        int flags = ItemClassifier.classify(stack);
+        if ((flags & ItemClassifier.TOOL) == 0) {
+            return BLANK;
+        }
+        String value = (flags & ItemClassifier.DURABILITY) == 0
+            ? HudText.INF
+            : HudText.durability(stack.getDurability(), stack.getMaxDurability(), false);
+        return previous.with(true, value, stack.getItemId());
+    }
+
+    @Override
+    void write(Label label, HudPatch patch) {
+        label.write(patch, HudText.MAIN_VISIBLE, HudText.MAIN_VALUE, HudText.MAIN_ICON);
+    }
+
+    @Override
+    boolean probed() {
+        return true;
+    }
+
+    @Override
+    long fingerprint(Player player, ItemContainer[] containers) {
+        return fingerprint(player.getInventory().getItemInHand(), 17L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.gillodaby.betterhud;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes {@link HudMetrics#renderPrometheus()} to a file, for a node exporter
+ * textfile collector or for copying off the server by hand.
+ */
+final class MetricsExporter {
+
+    // 0 disables the export
+    private static final long EXPORT_INTERVAL_SECONDS = Long.getLong("betterhud.metricsExportSeconds", 30L);
+    private static final String FILE_NAME = "metrics.prom";
+
+    private final Path target;
+    private ScheduledExecutorService executor;
+
+    MetricsExporter(Path directory) {
+        this.target = directory.resolve(FILE_NAME);
+    }
+
+    void start() {
+        if (EXPORT_INTERVAL_SECONDS <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "BetterHUD-Metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::export, EXPORT_INTERVAL_SECONDS, EXPORT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        export();
+    }
+
+    private void export() {
+        try {
+            Files.createDirectories(target.getParent());
+            // Write then rename so a scraper never reads a half-written file
+            Path temp = target.resolveSibling(FILE_NAME + ".tmp");
+            Files.write(temp, HudMetrics.renderPrometheus().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("[BetterHUD] Failed to export metrics: " + e.getMessage());
+        }
+    }
+}
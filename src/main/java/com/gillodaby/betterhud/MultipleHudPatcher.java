@@ -0,0 +1,129 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MultipleHUD stores its HUDs inside a plain HashMap; swapping it to a ConcurrentHashMap
+ * avoids concurrent modification when other plugins rebuild HUDs on tick threads.
+ * The field is resolved once into a {@link VarHandle}. The swapped-in map itself marks an
+ * instance as patched, so the check is a single read of that instance's field with no lock and
+ * no side table. A VarHandle on a final field is read-only, so a final {@code customHuds} is
+ * written through reflection instead.
+ */
+final class MultipleHudPatcher {
+
+    private static final String MULTI_CLASS = "com.buuz135.mhud.MultipleCustomUIHud";
+    private static final String FIELD = "customHuds";
+
+    private static final Class<?> MULTI_TYPE;
+    // Exactly one of these is set when the field resolved: the handle, or the field when it is final
+    private static final VarHandle CUSTOM_HUDS;
+    private static final Field FINAL_FIELD;
+    private static final AtomicBoolean FAILURE_LOGGED = new AtomicBoolean();
+    // Orders BetterHUD's writes to a final field, which has no compare-and-set
+    private static final Object FINAL_WRITE_LOCK = new Object();
+
+    static {
+        Class<?> type = null;
+        VarHandle handle = null;
+        Field finalField = null;
+        try {
+            type = Class.forName(MULTI_CLASS);
+            Field field = type.getDeclaredField(FIELD);
+            if (!field.getType().isAssignableFrom(ConcurrentHashMap.class)) {
+                throw new NoSuchFieldException(FIELD + " is declared as " + field.getType().getName());
+            }
+            if (Modifier.isFinal(field.getModifiers())) {
+                field.setAccessible(true);
+                finalField = field;
+                System.out.println("[BetterHUD] MultipleHUD " + FIELD + " is final, patching it through reflection without compare-and-set");
+            } else {
+                handle = MethodHandles.privateLookupIn(type, MethodHandles.lookup()).unreflectVarHandle(field);
+            }
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            System.out.println("[BetterHUD] MultipleHUD map patch unavailable, HUDs keep MultipleHUD's default map: " + e);
+            type = null;
+            handle = null;
+            finalField = null;
+        }
+        MULTI_TYPE = type;
+        CUSTOM_HUDS = handle;
+        FINAL_FIELD = finalField;
+    }
+
+    private MultipleHudPatcher() {
+    }
+
+    /**
+     * Forces the one-time lookup, so a missing class or field is reported at plugin start.
+     */
+    static boolean available() {
+        return MULTI_TYPE != null;
+    }
+
+    /**
+     * @return patched, already-safe, not-multiple, raced, unavailable or failed
+     */
+    static String patch(Player player) {
+        if (MULTI_TYPE == null) {
+            return "unavailable";
+        }
+        var hudManager = player.getHudManager();
+        if (hudManager == null) {
+            return "not-multiple";
+        }
+        CustomUIHud current = hudManager.getCustomHud();
+        if (!MULTI_TYPE.isInstance(current)) {
+            return "not-multiple";
+        }
+        try {
+            Object existing = CUSTOM_HUDS != null ? CUSTOM_HUDS.getVolatile(current) : FINAL_FIELD.get(current);
+            if (existing instanceof ConcurrentHashMap) {
+                return "already-safe";
+            }
+            Map<String, CustomUIHud> safe = new ConcurrentHashMap<>();
+            if (existing instanceof Map<?, ?> map) {
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() instanceof String key && entry.getValue() instanceof CustomUIHud value) {
+                        safe.put(key, value);
+                    }
+                }
+            }
+            // Only swap if nobody replaced the map meanwhile; otherwise the next call retries
+            return swap(current, existing, safe) ? "patched" : "raced";
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            HudMetrics.ERRORS_MULTIPLE_HUD.increment();
+            // Later failures only count; the first one says why the patch is not applying
+            if (FAILURE_LOGGED.compareAndSet(false, true)) {
+                System.out.println("[BetterHUD] Failed to patch MultipleHUD's map, counting further failures in betterhud_errors_total: " + e);
+            }
+            return "failed";
+        }
+    }
+
+    /**
+     * Replaces the map if it is still {@code existing}. A final field has no atomic write, so
+     * there the check and the write only exclude other BetterHUD patches, not MultipleHUD itself.
+     */
+    private static boolean swap(Object hud, Object existing, Map<String, CustomUIHud> safe) throws IllegalAccessException {
+        if (CUSTOM_HUDS != null) {
+            return CUSTOM_HUDS.compareAndSet(hud, existing, safe);
+        }
+        synchronized (FINAL_WRITE_LOCK) {
+            if (FINAL_FIELD.get(hud) != existing) {
+                return false;
+            }
+            FINAL_FIELD.set(hud, safe);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.gillodaby.betterhud;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer/single-consumer ring of {@code long} tokens.
+ * Producers never allocate or block; when the ring is full {@link #offer} returns false.
+ */
+final class RefreshTokenQueue {
+
+    static final long EMPTY = -1L;
+
+    private final long[] tokens;
+    // Per-slot sequence: equal to the claiming position when free, position + 1 once published
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer thread
+    private long head;
+
+    RefreshTokenQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.tokens = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    boolean offer(long token) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    tokens[index] = token;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Returns the next token, or {@link #EMPTY}. Must only be called from the consumer thread.
+     */
+    long poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return EMPTY;
+        }
+        long token = tokens[index];
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return token;
+    }
+}
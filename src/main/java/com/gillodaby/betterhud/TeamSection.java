@@ -0,0 +1,105 @@
+package com.gillodaby.betterhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+import java.util.Arrays;
+
+/**
+ * Armor and ammo of the player's teammates, one row each, from the summaries in
+ * {@link HudTeams}. It reads no container: teammates' own refreshes publish their summary and ask
+ * this player's shard to redraw, so nothing here scans another player's inventory.
+ */
+final class TeamSection extends HudSection<Void, HudTeams.Summary[]> {
+
+    private static final String LAYOUT = "Pages/GilloDaby_BetterHUD_Team.ui";
+    private static final HudTeams.Summary[] BLANK = new HudTeams.Summary[0];
+
+    TeamSection() {
+        super("team", CadenceController.ARMOR);
+    }
+
+    @Override
+    String layout() {
+        return LAYOUT;
+    }
+
+    /**
+     * A player without teammates to show never gets the team rows on their client.
+     */
+    @Override
+    boolean needsLayout(HudTeams.Summary[] rows) {
+        return rows.length > 0;
+    }
+
+    @Override
+    HudTeams.Summary[] blank() {
+        return BLANK;
+    }
+
+    /**
+     * Section bits whose new values change what teammates see.
+     */
+    static int sources() {
+        return HudSections.ARMOR.bit() | HudSections.ARROWS.bit();
+    }
+
+    @Override
+    HudTeams.Summary[] capture(Player player, ItemContainer[] containers, Void state, int changed, HudTeams.Summary[] previous) {
+        if (player == null) {
+            return BLANK;
+        }
+        HudTeams.Member self = HudTeams.member(player.getPlayerRef().getUuid());
+        HudTeams.Team team = self == null ? null : self.team;
+        if (team == null) {
+            return BLANK;
+        }
+        // Teammates whose HUD has not published yet, or just closed, have no row. The rows are
+        // compared in place first, so an unchanged team allocates nothing
+        HudTeams.Member[] members = team.members;
+        int count = 0;
+        boolean same = true;
+        for (HudTeams.Member member : members) {
+            HudTeams.Summary summary = member.summary;
+            if (member != self && summary != null && member.viewer != null) {
+                same &= count < previous.length && previous[count] == summary;
+                if (++count == HudText.TEAM_ROWS) {
+                    break;
+                }
+            }
+        }
+        if (same && count == previous.length) {
+            return previous;
+        }
+        HudTeams.Summary[] rows = new HudTeams.Summary[count];
+        int filled = 0;
+        for (HudTeams.Member member : members) {
+            HudTeams.Summary summary = member.summary;
+            if (member != self && summary != null && member.viewer != null) {
+                rows[filled++] = summary;
+                if (filled == count) {
+                    break;
+                }
+            }
+        }
+        // A teammate may have closed their HUD between the two passes
+        return filled == count ? rows : Arrays.copyOf(rows, filled);
+    }
+
+    @Override
+    void write(HudTeams.Summary[] rows, HudPatch patch) {
+        patch.set(HudText.TEAM_VISIBLE, rows.length > 0);
+        for (int row = 0; row < HudText.TEAM_ROWS; row++) {
+            boolean shown = row < rows.length;
+            patch.set(HudText.TEAM_ROW_VISIBLE[row], shown);
+            if (!shown) {
+                continue;
+            }
+            String[] selectors = HudText.TEAM_FIELD_SELECTORS[row];
+            String[] fields = rows[row].fields;
+            for (int field = 0; field < selectors.length; field++) {
+                patch.set(selectors[field], fields[field]);
+            }
+        }
+    }
+}
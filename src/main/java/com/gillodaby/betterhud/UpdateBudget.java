@@ -0,0 +1,93 @@
+package com.gillodaby.betterhud;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps how many HUD updates the whole plugin sends per window, so a join storm or a server-wide
+ * inventory event cannot flood the outbound queues. During the first half of each window a shard
+ * may only take its even share of the permits; after that any shard may use what is left.
+ * The limits can be replaced at runtime with {@link #configure(int, long)}.
+ */
+final class UpdateBudget {
+
+    private final int shards;
+    // Swapped whole so a permit check never pairs one limit's count with another's window
+    private volatile Limits limits;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicIntegerArray usedByShard;
+
+    /**
+     * @param permitsPerWindow updates allowed per window, or 0 for no limit
+     */
+    UpdateBudget(int permitsPerWindow, long windowMillis, int shards) {
+        this.shards = shards;
+        this.usedByShard = new AtomicIntegerArray(shards);
+        configure(permitsPerWindow, windowMillis);
+    }
+
+    /**
+     * Applies new limits from the next permit check on; permits already taken in the current
+     * window still count against the new cap.
+     */
+    void configure(int permitsPerWindow, long windowMillis) {
+        limits = new Limits(permitsPerWindow, TimeUnit.MILLISECONDS.toNanos(Math.max(1L, windowMillis)),
+            Math.max(1, (permitsPerWindow + shards - 1) / shards));
+    }
+
+    int permitsPerWindow() {
+        return limits.permitsPerWindow;
+    }
+
+    int remaining() {
+        int permits = limits.permitsPerWindow;
+        return permits <= 0 ? 0 : Math.max(0, permits - used.get());
+    }
+
+    boolean tryAcquire(int shard) {
+        Limits active = limits;
+        int permitsPerWindow = active.permitsPerWindow;
+        if (permitsPerWindow <= 0) {
+            return true;
+        }
+        long windowNanos = active.windowNanos;
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            // A permit taken by a racing shard during the reset is forgiven; the cap stays approximate
+            used.set(0);
+            for (int i = 0; i < usedByShard.length(); i++) {
+                usedByShard.set(i, 0);
+            }
+            start = now;
+        }
+        if (now - start < windowNanos / 2 && usedByShard.get(shard) >= active.share) {
+            return false;
+        }
+        while (true) {
+            int current = used.get();
+            if (current >= permitsPerWindow) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + 1)) {
+                usedByShard.incrementAndGet(shard);
+                return true;
+            }
+        }
+    }
+
+    private static final class Limits {
+        final int permitsPerWindow;
+        final long windowNanos;
+        final int share;
+
+        Limits(int permitsPerWindow, long windowNanos, int share) {
+            this.permitsPerWindow = permitsPerWindow;
+            this.windowNanos = windowNanos;
+            this.share = share;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.buuz135.mhud;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.entity.entities.player.hud.CustomUIHud;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Stand-in for the MultipleHUD plugin entry point; shows the HUD immediately.
+ */
+public class MultipleHUD {
+
+    private static final MultipleHUD INSTANCE = new MultipleHUD();
+
+    public static MultipleHUD getInstance() {
+        return INSTANCE;
+    }
+
+    public void setCustomHud(Player player, PlayerRef playerRef, String name, CustomUIHud hud) {
+        hud.show();
+    }
+
+    public void hideCustomHud(Player player, PlayerRef playerRef, String name) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.hypixel.hytale.event;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class EventRegistration {
+
+    private final Runnable onUnregister;
+
+    public EventRegistration(Runnable onUnregister) {
+        this.onUnregister = onUnregister;
+    }
+
+    public void unregister() {
+        onUnregister.run();
+    }
+}
@@ -0,0 +1,23 @@
+package com.hypixel.hytale.server.core.asset.type.item.config;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class Item {
+
+    private final Object tool;
+    private final Object weapon;
+
+    public Item(boolean tool, boolean weapon) {
+        this.tool = tool ? new Object() : null;
+        this.weapon = weapon ? new Object() : null;
+    }
+
+    public Object getTool() {
+        return tool;
+    }
+
+    public Object getWeapon() {
+        return weapon;
+    }
+}
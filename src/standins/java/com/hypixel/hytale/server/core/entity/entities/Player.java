@@ -0,0 +1,45 @@
+package com.hypixel.hytale.server.core.entity.entities;
+
+import com.hypixel.hytale.server.core.entity.entities.player.hud.HudManager;
+import com.hypixel.hytale.server.core.inventory.Inventory;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class Player {
+
+    private final PlayerRef playerRef;
+    private final Inventory inventory;
+    private final HudManager hudManager = new HudManager();
+    private volatile boolean removed;
+
+    public Player(PlayerRef playerRef, Inventory inventory) {
+        this.playerRef = playerRef;
+        this.inventory = inventory;
+    }
+
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public HudManager getHudManager() {
+        return hudManager;
+    }
+
+    public String getDisplayName() {
+        return playerRef.getUsername();
+    }
+
+    public boolean wasRemoved() {
+        return removed;
+    }
+
+    public void remove() {
+        this.removed = true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.hypixel.hytale.server.core.entity.entities.player.hud;
+
+import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ * Updates are handed to {@link #sink} instead of the network.
+ */
+public abstract class CustomUIHud {
+
+    /**
+     * Receives every built or updated HUD; harnesses replace it to measure output.
+     */
+    public static volatile UpdateSink sink = (hud, builder) -> { };
+
+    private final PlayerRef playerRef;
+
+    public CustomUIHud(PlayerRef playerRef) {
+        this.playerRef = playerRef;
+    }
+
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+
+    protected abstract void build(UICommandBuilder builder);
+
+    public void show() {
+        UICommandBuilder builder = new UICommandBuilder();
+        build(builder);
+        sink.accept(this, builder);
+    }
+
+    public void update(boolean clear, UICommandBuilder builder) {
+        sink.accept(this, builder);
+    }
+
+    @FunctionalInterface
+    public interface UpdateSink {
+        void accept(CustomUIHud hud, UICommandBuilder builder);
+    }
+}
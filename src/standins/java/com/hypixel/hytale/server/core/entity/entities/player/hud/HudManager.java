@@ -0,0 +1,17 @@
+package com.hypixel.hytale.server.core.entity.entities.player.hud;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class HudManager {
+
+    private volatile CustomUIHud customHud;
+
+    public CustomUIHud getCustomHud() {
+        return customHud;
+    }
+
+    public void setCustomHud(CustomUIHud customHud) {
+        this.customHud = customHud;
+    }
+}
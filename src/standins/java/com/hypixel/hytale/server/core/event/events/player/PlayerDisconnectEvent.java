@@ -0,0 +1,19 @@
+package com.hypixel.hytale.server.core.event.events.player;
+
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class PlayerDisconnectEvent {
+
+    private final PlayerRef playerRef;
+
+    public PlayerDisconnectEvent(PlayerRef playerRef) {
+        this.playerRef = playerRef;
+    }
+
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+}
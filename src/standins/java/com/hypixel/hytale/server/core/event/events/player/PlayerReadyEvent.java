@@ -0,0 +1,19 @@
+package com.hypixel.hytale.server.core.event.events.player;
+
+import com.hypixel.hytale.server.core.entity.entities.Player;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class PlayerReadyEvent {
+
+    private final Player player;
+
+    public PlayerReadyEvent(Player player) {
+        this.player = player;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+}
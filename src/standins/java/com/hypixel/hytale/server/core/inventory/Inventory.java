@@ -0,0 +1,59 @@
+package com.hypixel.hytale.server.core.inventory;
+
+import com.hypixel.hytale.server.core.inventory.container.ItemContainer;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class Inventory {
+
+    private final ItemContainer armor;
+    private final ItemContainer hotbar;
+    private final ItemContainer storage;
+    private final ItemContainer backpack;
+    private final ItemContainer utility;
+    private final ItemContainer tools;
+    private volatile short activeHotbarSlot;
+
+    public Inventory(ItemContainer armor, ItemContainer hotbar, ItemContainer storage,
+                     ItemContainer backpack, ItemContainer utility, ItemContainer tools) {
+        this.armor = armor;
+        this.hotbar = hotbar;
+        this.storage = storage;
+        this.backpack = backpack;
+        this.utility = utility;
+        this.tools = tools;
+    }
+
+    public ItemContainer getArmor() {
+        return armor;
+    }
+
+    public ItemContainer getHotbar() {
+        return hotbar;
+    }
+
+    public ItemContainer getStorage() {
+        return storage;
+    }
+
+    public ItemContainer getBackpack() {
+        return backpack;
+    }
+
+    public ItemContainer getUtility() {
+        return utility;
+    }
+
+    public ItemContainer getTools() {
+        return tools;
+    }
+
+    public ItemStack getItemInHand() {
+        return hotbar.getCapacity() == 0 ? null : hotbar.getItemStack(activeHotbarSlot);
+    }
+
+    public void setActiveHotbarSlot(short slot) {
+        this.activeHotbarSlot = slot;
+    }
+}
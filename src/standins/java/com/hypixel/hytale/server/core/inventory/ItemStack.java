@@ -0,0 +1,47 @@
+package com.hypixel.hytale.server.core.inventory;
+
+import com.hypixel.hytale.server.core.asset.type.item.config.Item;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class ItemStack {
+
+    private final String itemId;
+    private final int quantity;
+    private final double durability;
+    private final double maxDurability;
+    private final Item item;
+
+    public ItemStack(String itemId, int quantity, double durability, double maxDurability, Item item) {
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.durability = durability;
+        this.maxDurability = maxDurability;
+        this.item = item;
+    }
+
+    public boolean isEmpty() {
+        return itemId == null || quantity <= 0;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getDurability() {
+        return durability;
+    }
+
+    public double getMaxDurability() {
+        return maxDurability;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+}
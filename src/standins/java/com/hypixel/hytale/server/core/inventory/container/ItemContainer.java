@@ -0,0 +1,62 @@
+package com.hypixel.hytale.server.core.inventory.container;
+
+import com.hypixel.hytale.event.EventRegistration;
+import com.hypixel.hytale.server.core.inventory.ItemStack;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ * Unlike the real container, slots are set directly and {@link #fireChange()} raises the event.
+ */
+public class ItemContainer {
+
+    private final ItemStack[] slots;
+    private final List<Consumer<ItemContainerChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final ItemContainerChangeEvent event = new ItemContainerChangeEvent(this);
+
+    public ItemContainer(int capacity) {
+        this.slots = new ItemStack[capacity];
+    }
+
+    public short getCapacity() {
+        return (short) slots.length;
+    }
+
+    public ItemStack getItemStack(short slot) {
+        return slots[slot];
+    }
+
+    public void setItemStack(short slot, ItemStack stack) {
+        slots[slot] = stack;
+    }
+
+    public EventRegistration registerChangeEvent(Consumer<ItemContainerChangeEvent> listener) {
+        listeners.add(listener);
+        return new EventRegistration(() -> listeners.remove(listener));
+    }
+
+    public void fireChange() {
+        for (Consumer<ItemContainerChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+    }
+
+    public int listenerCount() {
+        return listeners.size();
+    }
+
+    public static class ItemContainerChangeEvent {
+        private final ItemContainer container;
+
+        public ItemContainerChangeEvent(ItemContainer container) {
+            this.container = container;
+        }
+
+        public ItemContainer container() {
+            return container;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.hypixel.hytale.server.core.ui.builder;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ * Instead of encoding commands it counts them and estimates their encoded size.
+ */
+public class UICommandBuilder {
+
+    private int commands;
+    private long bytes;
+
+    public void append(String document) {
+        record(document, null);
+    }
+
+    public void set(String selector, String value) {
+        record(selector, value);
+    }
+
+    public void set(String selector, boolean value) {
+        commands++;
+        bytes += 2 + selector.length() + 1;
+    }
+
+    public void setNull(String selector) {
+        record(selector, null);
+    }
+
+    public int commandCount() {
+        return commands;
+    }
+
+    public long byteSize() {
+        return bytes;
+    }
+
+    private void record(String selector, String value) {
+        commands++;
+        bytes += 2 + selector.length() + (value == null ? 0 : 2 + value.length());
+    }
+}
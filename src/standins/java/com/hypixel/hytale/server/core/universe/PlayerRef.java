@@ -0,0 +1,25 @@
+package com.hypixel.hytale.server.core.universe;
+
+import java.util.UUID;
+
+/**
+ * Stand-in for the server class of the same name; only what BetterHUD touches.
+ */
+public class PlayerRef {
+
+    private final UUID uuid;
+    private final String username;
+
+    public PlayerRef(UUID uuid, String username) {
+        this.uuid = uuid;
+        this.username = username;
+    }
+
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}